@@ -0,0 +1,19 @@
+package com.sinandemir.todoapp.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class AsyncRequestConfig implements WebMvcConfigurer {
+
+    @Value("${app.async-request-timeout-milliseconds:3600000}")
+    private long asyncRequestTimeoutMillis;
+
+    // @EnableWebMvc turns off boot's mvc auto-configuration, so spring.mvc.async.request-timeout is never applied
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncRequestTimeoutMillis);
+    }
+}
@@ -0,0 +1,36 @@
+package com.sinandemir.todoapp.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+@Configuration
+public class PersistenceConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(@Value("${app.jdbc-batch-size:50}") int batchSize) {
+        return (hibernateProperties) -> {
+            hibernateProperties.putIfAbsent("hibernate.jdbc.batch_size", batchSize);
+            hibernateProperties.putIfAbsent("hibernate.order_inserts", true);
+            hibernateProperties.putIfAbsent("hibernate.order_updates", true);
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor batchedInsertRewritingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && !dataSource.getDataSourceProperties().containsKey("reWriteBatchedInserts")) {
+                    dataSource.addDataSourceProperty("reWriteBatchedInserts", true);
+                }
+                return bean;
+            }
+        };
+    }
+}
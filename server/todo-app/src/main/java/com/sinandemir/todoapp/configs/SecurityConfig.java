@@ -1,5 +1,6 @@
 package com.sinandemir.todoapp.configs;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -8,13 +9,18 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.sinandemir.todoapp.security.AdaptiveBCryptPasswordEncoder;
+import com.sinandemir.todoapp.security.AuthRateLimitFilter;
+import com.sinandemir.todoapp.security.BoundedPasswordEncoder;
 import com.sinandemir.todoapp.security.JwtAuthenticationEntryPoint;
 import com.sinandemir.todoapp.security.JwtAuthenticationFilter;
+import com.sinandemir.todoapp.security.PasswordHashingExecutor;
+
+import jakarta.servlet.DispatcherType;
 
 @Configuration
 @EnableMethodSecurity
@@ -23,28 +29,37 @@ public class SecurityConfig {
     private UserDetailsService userDetailsService;
     private JwtAuthenticationEntryPoint authenticationEntryPoint;
     private JwtAuthenticationFilter authenticationFilter;
+    private AuthRateLimitFilter authRateLimitFilter;
 
-    public SecurityConfig(UserDetailsService userDetailsService, JwtAuthenticationEntryPoint authenticationEntryPoint, JwtAuthenticationFilter authenticationFilter){
+    public SecurityConfig(UserDetailsService userDetailsService, JwtAuthenticationEntryPoint authenticationEntryPoint, JwtAuthenticationFilter authenticationFilter, AuthRateLimitFilter authRateLimitFilter){
         this.userDetailsService = userDetailsService;
         this.authenticationEntryPoint = authenticationEntryPoint;
         this.authenticationFilter = authenticationFilter;
+        this.authRateLimitFilter = authRateLimitFilter;
     }
 
     @Bean
-    public static PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public static PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor,
+            @Value("${app.password-hash-budget-milliseconds:50}") long hashBudgetMillis,
+            @Value("${app.password-hash-min-strength:10}") int minStrength) {
+        return new BoundedPasswordEncoder(AdaptiveBCryptPasswordEncoder.calibrate(hashBudgetMillis, minStrength),
+                passwordHashingExecutor);
     }
 
     @Bean
     SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.csrf((csrf) -> csrf.disable())
                 .authorizeHttpRequests((authorize) -> {
-                    authorize.requestMatchers("api/v1/auth/**").permitAll();
+                    // async and error dispatches reuse the request that was already authorized
+                    authorize.dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll();
+                    authorize.requestMatchers("/api/v1/auth/logout-all").authenticated();
+                    authorize.requestMatchers("/api/v1/auth/**").permitAll();
                     authorize.anyRequest().authenticated();
                 }).httpBasic(Customizer.withDefaults());
 
                 http.exceptionHandling(exception -> exception.authenticationEntryPoint(authenticationEntryPoint));
 
+                http.addFilterBefore(authRateLimitFilter, UsernamePasswordAuthenticationFilter.class);
                 http.addFilterBefore(authenticationFilter, UsernamePasswordAuthenticationFilter.class);
                 
         return http.build();
@@ -0,0 +1,79 @@
+package com.sinandemir.todoapp.configs;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TodoSchemaInitializer implements SmartInitializingSingleton {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TodoSchemaInitializer.class);
+
+    // any fixed bigint works, as long as nothing else in the database takes the same advisory lock
+    private static final long PARTIAL_INDEX_LOCK = 0x746f646f73L;
+
+    private JdbcTemplate jdbcTemplate;
+
+    public TodoSchemaInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // ids handed out by the old identity column must never be reissued by todos_seq
+    @Override
+    public void afterSingletonsInstantiated() {
+        Long sequenceValue = jdbcTemplate.queryForObject("select setval('todos_seq', greatest("
+                + "(select coalesce(max(id), 1) from todos), (select last_value from todos_seq)))", Long.class);
+        LOGGER.info("todos_seq aligned to {}", sequenceValue);
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) (connection) -> {
+            createCompletedPartialIndexes(new JdbcTemplate(new SingleConnectionDataSource(connection, true)));
+            return null;
+        });
+    }
+
+    // jpa cannot declare partial indexes; each one only holds the rows its completed filter lists.
+    // advisory locks belong to the session, so the lock, the checks and the builds share one connection.
+    // the lock is only tried: a blocked pg_advisory_lock call would hold a snapshot, and a concurrent index
+    // build waits for every older snapshot to go away, so the two instances would wait on each other
+    private void createCompletedPartialIndexes(JdbcTemplate session) {
+        if (!session.queryForObject("select pg_try_advisory_lock(?)", Boolean.class, PARTIAL_INDEX_LOCK)) {
+            LOGGER.info("another instance is building the completed partial indexes, skipping");
+            return;
+        }
+        try {
+            createPartialIndexConcurrently(session, "idx_todos_open_id", "completed = false");
+            createPartialIndexConcurrently(session, "idx_todos_completed_id", "completed = true");
+        } finally {
+            session.queryForObject("select pg_advisory_unlock(?)", Boolean.class, PARTIAL_INDEX_LOCK);
+        }
+    }
+
+    // concurrently keeps todos writable during the build. it cannot run inside a transaction, and the
+    // connection is in auto-commit, so each statement commits on its own
+    private void createPartialIndexConcurrently(JdbcTemplate session, String indexName, String predicate) {
+        // a failed concurrent build leaves an invalid index behind, which "if not exists" would keep forever.
+        // a build still in progress is invalid too, so only drop what nobody is building, for instance one
+        // started by hand outside the advisory lock
+        List<Boolean> valid = session.queryForList(
+                "select indisvalid from pg_index where indexrelid = to_regclass(?)", Boolean.class, indexName);
+        if (valid.contains(Boolean.FALSE)) {
+            Integer builds = session.queryForObject(
+                    "select count(*) from pg_stat_progress_create_index where index_relid = to_regclass(?)",
+                    Integer.class, indexName);
+            if (builds > 0) {
+                LOGGER.info("index {} is still being built elsewhere, leaving it alone", indexName);
+                return;
+            }
+            LOGGER.warn("dropping invalid index {} left by an interrupted build", indexName);
+            session.execute("drop index concurrently if exists " + indexName);
+        }
+        session.execute("create index concurrently if not exists " + indexName + " on todos (id) where "
+                + predicate);
+    }
+}
@@ -2,6 +2,7 @@ package com.sinandemir.todoapp.controllers;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -12,6 +13,9 @@ import com.sinandemir.todoapp.dto.requests.UserLoginRequest;
 import com.sinandemir.todoapp.dto.requests.UserRegisterRequest;
 import com.sinandemir.todoapp.dto.responses.UserLoginResponse;
 import com.sinandemir.todoapp.dto.responses.UserRegisterResponse;
+import com.sinandemir.todoapp.exceptions.RefreshTokenExpiredException;
+import com.sinandemir.todoapp.security.AuthRateLimiter;
+import com.sinandemir.todoapp.security.AuthenticatedUser;
 import com.sinandemir.todoapp.services.AuthService;
 import com.sinandemir.todoapp.services.RefreshTokenService;
 
@@ -23,10 +27,13 @@ public class AuthController {
 
     private AuthService authService;
     private RefreshTokenService refreshTokenService;
+    private AuthRateLimiter authRateLimiter;
 
-    public AuthController(AuthService authService, RefreshTokenService refreshTokenService) {
+    public AuthController(AuthService authService, RefreshTokenService refreshTokenService,
+            AuthRateLimiter authRateLimiter) {
         this.authService = authService;
         this.refreshTokenService = refreshTokenService;
+        this.authRateLimiter = authRateLimiter;
     }
 
     @PostMapping("register")
@@ -37,10 +44,20 @@ public class AuthController {
 
     @PostMapping("login")
     public ResponseEntity<UserLoginResponse> login(@RequestBody UserLoginRequest loginRequest) {
+        authRateLimiter.checkLimit(AuthRateLimiter.identifierKey(loginRequest.getUsernameOrEmail()));
         UserLoginResponse user = authService.login(loginRequest);
         return new ResponseEntity<UserLoginResponse>(user, HttpStatus.OK);
     }
 
+    @PostMapping("logout-all")
+    public ResponseEntity<String> logoutAll(@AuthenticationPrincipal AuthenticatedUser user) {
+        if (user == null || user.getUserId() == null) {
+            return new ResponseEntity<String>("Session is not valid.", HttpStatus.UNAUTHORIZED);
+        }
+        authService.logoutAll(user.getUserId());
+        return new ResponseEntity<String>("Logged out from all sessions.", HttpStatus.OK);
+    }
+
     @PostMapping("refresh-token")
     public ResponseEntity<String> refreshToken(@RequestBody RefreshTokenRequest refreshTokenRequest) {
         try {
@@ -53,6 +70,8 @@ public class AuthController {
         } catch (ExpiredJwtException e) {
             refreshTokenService.deleteRefreshTokenByRefreshToken(refreshTokenRequest.getRefreshToken());
             return new ResponseEntity<String>("Session has expired.", HttpStatus.UNAUTHORIZED);
+        } catch (RefreshTokenExpiredException e) {
+            return new ResponseEntity<String>("Session has expired.", HttpStatus.UNAUTHORIZED);
         }
     }
 }
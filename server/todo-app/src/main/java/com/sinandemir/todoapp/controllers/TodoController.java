@@ -1,7 +1,14 @@
 package com.sinandemir.todoapp.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -13,10 +20,19 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.sinandemir.todoapp.dto.requests.TodoBatchUpdateRequest;
 import com.sinandemir.todoapp.dto.requests.TodoRequest;
+import com.sinandemir.todoapp.dto.responses.CursorPageResponse;
+import com.sinandemir.todoapp.dto.responses.TodoBatchResponse;
+import com.sinandemir.todoapp.dto.responses.TodoCountsResponse;
+import com.sinandemir.todoapp.dto.responses.TodoImportResponse;
 import com.sinandemir.todoapp.dto.responses.TodoResponse;
+import com.sinandemir.todoapp.services.TodoExportService;
+import com.sinandemir.todoapp.services.TodoImportService;
 import com.sinandemir.todoapp.services.TodoService;
 
 @RestController
@@ -24,9 +40,14 @@ import com.sinandemir.todoapp.services.TodoService;
 public class TodoController {
 
     private TodoService todoService;
+    private TodoExportService todoExportService;
+    private TodoImportService todoImportService;
 
-    public TodoController(TodoService todoService) {
+    public TodoController(TodoService todoService, TodoExportService todoExportService,
+            TodoImportService todoImportService) {
         this.todoService = todoService;
+        this.todoExportService = todoExportService;
+        this.todoImportService = todoImportService;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -36,6 +57,34 @@ public class TodoController {
         return new ResponseEntity<TodoResponse>(savedTodo, HttpStatus.CREATED);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("batch")
+    public ResponseEntity<TodoBatchResponse> addTodos(@RequestBody List<TodoRequest> todoRequests) {
+        TodoBatchResponse results = todoService.addTodos(todoRequests);
+        return new ResponseEntity<TodoBatchResponse>(results, HttpStatus.OK);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("batch")
+    public ResponseEntity<TodoBatchResponse> updateTodos(@RequestBody List<TodoBatchUpdateRequest> todoRequests) {
+        TodoBatchResponse results = todoService.updateTodos(todoRequests);
+        return new ResponseEntity<TodoBatchResponse>(results, HttpStatus.OK);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("batch")
+    public ResponseEntity<TodoBatchResponse> deleteTodos(@RequestBody List<Long> todoIds) {
+        TodoBatchResponse results = todoService.deleteTodos(todoIds);
+        return new ResponseEntity<TodoBatchResponse>(results, HttpStatus.OK);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("import")
+    public ResponseEntity<TodoImportResponse> importTodos(InputStream inputStream) throws IOException {
+        TodoImportResponse result = todoImportService.importTodos(inputStream);
+        return new ResponseEntity<TodoImportResponse>(result, HttpStatus.OK);
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN','USER')")
     @GetMapping("{todoId}")
     public ResponseEntity<TodoResponse> getTodoById(@PathVariable Long todoId) {
@@ -45,11 +94,53 @@ public class TodoController {
 
     @PreAuthorize("hasAnyRole('ADMIN','USER')")
     @GetMapping
-    public ResponseEntity<Page<TodoResponse>> getAllTodosWithPagination(Pageable pageable) {
-        Page<TodoResponse> todos = todoService.getAllTodosWithPagination(pageable);
+    public ResponseEntity<Page<TodoResponse>> getAllTodosWithPagination(Pageable pageable,
+            @RequestParam(required = false) Boolean completed) {
+        Page<TodoResponse> todos = todoService.getAllTodosWithPagination(pageable, completed);
         return new ResponseEntity<Page<TodoResponse>>(todos, HttpStatus.OK);
     }
 
+    @PreAuthorize("hasAnyRole('ADMIN','USER')")
+    @GetMapping("slice")
+    public ResponseEntity<Slice<TodoResponse>> getAllTodosWithSlice(Pageable pageable) {
+        Slice<TodoResponse> todos = todoService.getAllTodosWithSlice(pageable);
+        return new ResponseEntity<Slice<TodoResponse>>(todos, HttpStatus.OK);
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','USER')")
+    @GetMapping("counts")
+    public ResponseEntity<TodoCountsResponse> getTodoCounts() {
+        TodoCountsResponse counts = todoService.getTodoCounts();
+        return new ResponseEntity<TodoCountsResponse>(counts, HttpStatus.OK);
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','USER')")
+    @GetMapping("search")
+    public ResponseEntity<List<TodoResponse>> searchTodos(@RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<TodoResponse> todos = todoService.searchTodos(q, limit);
+        return new ResponseEntity<List<TodoResponse>>(todos, HttpStatus.OK);
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','USER')")
+    @GetMapping("cursor")
+    public ResponseEntity<CursorPageResponse<TodoResponse>> getTodosWithCursor(
+            @RequestParam(required = false) String after, @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sort, @RequestParam(defaultValue = "asc") String direction) {
+        CursorPageResponse<TodoResponse> todos = todoService.getTodosWithCursor(after, size, sort, direction);
+        return new ResponseEntity<CursorPageResponse<TodoResponse>>(todos, HttpStatus.OK);
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','USER')")
+    @GetMapping("export")
+    public ResponseEntity<StreamingResponseBody> exportTodos(@RequestParam(defaultValue = "ndjson") String format) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(todoExportService.getMediaType(format));
+        headers.setContentDisposition(ContentDisposition.attachment().filename("todos." + format).build());
+        StreamingResponseBody todos = (outputStream) -> todoExportService.exportTodos(format, outputStream);
+        return new ResponseEntity<StreamingResponseBody>(todos, headers, HttpStatus.OK);
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("{todoId}")
     public ResponseEntity<TodoResponse> updateTodo(@RequestBody TodoRequest todoRequest, @PathVariable Long todoId) {
@@ -0,0 +1,17 @@
+package com.sinandemir.todoapp.dto.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoBatchUpdateRequest {
+    private Long id;
+    private String title;
+    private String description;
+    private boolean completed;
+}
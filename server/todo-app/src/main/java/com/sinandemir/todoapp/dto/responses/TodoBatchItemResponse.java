@@ -0,0 +1,17 @@
+package com.sinandemir.todoapp.dto.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoBatchItemResponse {
+    private int index;
+    private Long id;
+    private String status;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.sinandemir.todoapp.dto.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoCountsResponse {
+    private long total;
+    private long completed;
+    private long open;
+}
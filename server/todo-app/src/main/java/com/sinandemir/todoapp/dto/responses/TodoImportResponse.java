@@ -0,0 +1,18 @@
+package com.sinandemir.todoapp.dto.responses;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TodoImportResponse {
+    private long imported;
+    private long failed;
+    private List<TodoBatchItemResponse> errors;
+}
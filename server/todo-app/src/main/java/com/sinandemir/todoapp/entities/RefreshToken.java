@@ -1,5 +1,7 @@
 package com.sinandemir.todoapp.entities;
 
+import java.time.Instant;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.CascadeType;
@@ -9,6 +11,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
@@ -20,7 +23,9 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "ux_refresh_tokens_refresh_token_hash", columnList = "refresh_token_hash", unique = true),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at") })
 public class RefreshToken {
 
     @Id
@@ -28,10 +33,16 @@ public class RefreshToken {
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
-    @JoinColumn(name = "user_id", referencedColumnName = "id")
+    @JoinColumn(name = "user_id", referencedColumnName = "id", unique = true)
     @JsonIgnore
     private User user;
 
     @Column(name = "refresh_token", nullable = false)
     private String refreshToken;
+
+    @Column(name = "refresh_token_hash")
+    private byte[] refreshTokenHash;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;
 }
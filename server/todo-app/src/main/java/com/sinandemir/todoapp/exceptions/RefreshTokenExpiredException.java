@@ -0,0 +1,8 @@
+package com.sinandemir.todoapp.exceptions;
+
+public class RefreshTokenExpiredException extends RuntimeException {
+
+    public RefreshTokenExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,30 @@
+package com.sinandemir.todoapp.mappers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sinandemir.todoapp.dto.requests.TodoRequest;
+import com.sinandemir.todoapp.dto.responses.TodoResponse;
+import com.sinandemir.todoapp.entities.Todo;
+
+public final class TodoMapper {
+
+    private TodoMapper() {
+    }
+
+    public static Todo toEntity(TodoRequest todoRequest) {
+        return new Todo(null, todoRequest.getTitle(), todoRequest.getDescription(), todoRequest.isCompleted());
+    }
+
+    public static TodoResponse toResponse(Todo todo) {
+        return new TodoResponse(todo.getId(), todo.getTitle(), todo.getDescription(), todo.isCompleted());
+    }
+
+    public static List<TodoResponse> toResponses(List<Todo> todos) {
+        List<TodoResponse> todoResponses = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            todoResponses.add(toResponse(todo));
+        }
+        return todoResponses;
+    }
+}
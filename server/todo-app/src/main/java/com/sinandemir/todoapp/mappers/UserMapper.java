@@ -0,0 +1,14 @@
+package com.sinandemir.todoapp.mappers;
+
+import com.sinandemir.todoapp.dto.responses.UserRegisterResponse;
+import com.sinandemir.todoapp.entities.User;
+
+public final class UserMapper {
+
+    private UserMapper() {
+    }
+
+    public static UserRegisterResponse toRegisterResponse(User user) {
+        return new UserRegisterResponse(user.getId(), user.getName(), user.getUsername(), user.getEmail());
+    }
+}
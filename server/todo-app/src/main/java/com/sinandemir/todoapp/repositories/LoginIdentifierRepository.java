@@ -0,0 +1,51 @@
+package com.sinandemir.todoapp.repositories;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sinandemir.todoapp.entities.LoginIdentifier;
+
+@Repository
+public interface LoginIdentifierRepository extends JpaRepository<LoginIdentifier, String> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert into login_identifiers (identifier, user_id) values (:identifier, :userId) "
+            + "on conflict (identifier) do update set user_id = null "
+            + "where login_identifiers.user_id is distinct from excluded.user_id", nativeQuery = true)
+    int upsert(@Param("identifier") String identifier, @Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from LoginIdentifier li where li.user.id = :userId and li.identifier not in :identifiers")
+    int deleteStale(@Param("userId") Long userId, @Param("identifiers") Collection<String> identifiers);
+
+    // an ambiguous row names no user, so deleteStale never reaches it: re-resolve it from the users still matching
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "with matches as ("
+            + "select li.identifier, count(distinct u.id) as user_count, min(u.id) as user_id "
+            + "from login_identifiers li left join users u "
+            + "on lower(u.username) = li.identifier or lower(u.email) = li.identifier "
+            + "where li.identifier in (:identifiers) and li.user_id is null group by li.identifier), "
+            + "resolved as (update login_identifiers li set user_id = m.user_id from matches m "
+            + "where li.identifier = m.identifier and m.user_count = 1 returning li.identifier) "
+            + "delete from login_identifiers li using matches m "
+            + "where li.identifier = m.identifier and m.user_count = 0", nativeQuery = true)
+    int resolveAmbiguous(@Param("identifiers") Collection<String> identifiers);
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert into login_identifiers (identifier, user_id) "
+            + "select identifier, case when count(distinct user_id) = 1 then min(user_id) end from ("
+            + "select lower(username) as identifier, id as user_id from users "
+            + "union all select lower(email), id from users) identifiers "
+            + "group by identifier on conflict (identifier) do nothing", nativeQuery = true)
+    int backfill();
+}
@@ -1,12 +1,58 @@
 package com.sinandemir.todoapp.repositories;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.sinandemir.todoapp.entities.RefreshToken;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByUserId(Long userId);
-    Optional<RefreshToken> findByRefreshToken(String refreshToken);
+    List<RefreshToken> findTop500ByRefreshTokenHashIsNullOrExpiresAtIsNull();
+
+    @Query("select r.id as id, r.refreshToken as refreshToken, r.expiresAt as expiresAt, u.id as userId, u.username as username "
+            + "from RefreshToken r join r.user u where r.id > :afterId and r.expiresAt > :now order by r.id")
+    List<RefreshTokenView> findActiveAfter(@Param("afterId") Long afterId, @Param("now") Instant now, Pageable pageable);
+
+    @Query("select r.id from RefreshToken r where r.id > :afterId and r.expiresAt <= :now order by r.id")
+    List<Long> findExpiredIdsAfter(@Param("afterId") Long afterId, @Param("now") Instant now, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    // re-checks expiry: the login upsert revives an expired row in place, keeping its id
+    @Query("delete from RefreshToken r where r.id in :ids and r.expiresAt <= :now")
+    int deleteExpiredByIdIn(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken r where r.refreshTokenHash = :refreshTokenHash")
+    int deleteByRefreshTokenHash(@Param("refreshTokenHash") byte[] refreshTokenHash);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken r where r.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // on conflict (user_id) needs the unique user_id join column declared on RefreshToken
+    @Transactional
+    @Query(value = "with upserted as ("
+            + "insert into refresh_tokens (user_id, refresh_token, refresh_token_hash, expires_at) "
+            + "values (:userId, :refreshToken, :refreshTokenHash, :expiresAt) "
+            + "on conflict (user_id) do update set refresh_token = excluded.refresh_token, "
+            + "refresh_token_hash = excluded.refresh_token_hash, expires_at = excluded.expires_at "
+            + "where refresh_tokens.expires_at is null or refresh_tokens.expires_at <= :now "
+            + "returning refresh_token) "
+            + "select refresh_token from upserted "
+            + "union all select r.refresh_token from refresh_tokens r "
+            + "where r.user_id = :userId and not exists (select 1 from upserted)", nativeQuery = true)
+    Optional<String> upsertRefreshToken(@Param("userId") Long userId, @Param("refreshToken") String refreshToken,
+            @Param("refreshTokenHash") byte[] refreshTokenHash, @Param("expiresAt") Instant expiresAt,
+            @Param("now") Instant now);
 }
@@ -0,0 +1,11 @@
+package com.sinandemir.todoapp.repositories;
+
+import java.time.Instant;
+
+public interface RefreshTokenView {
+    Long getId();
+    String getRefreshToken();
+    Instant getExpiresAt();
+    Long getUserId();
+    String getUsername();
+}
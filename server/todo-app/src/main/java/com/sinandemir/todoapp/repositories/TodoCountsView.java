@@ -0,0 +1,6 @@
+package com.sinandemir.todoapp.repositories;
+
+public interface TodoCountsView {
+    Long getTotal();
+    Long getCompleted();
+}
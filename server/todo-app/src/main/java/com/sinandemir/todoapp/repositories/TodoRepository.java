@@ -1,11 +1,73 @@
 package com.sinandemir.todoapp.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.sinandemir.todoapp.dto.responses.TodoResponse;
 import com.sinandemir.todoapp.entities.Todo;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
-public interface TodoRepository extends JpaRepository<Todo,Long>{
-    
+public interface TodoRepository extends JpaRepository<Todo,Long>, TodoStreamRepository {
+
+    List<Todo> findAllBy(Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Todo t where t.id = :id")
+    Optional<Todo> findByIdForUpdate(@Param("id") Long id);
+
+    // locked in id order, so two batches over the same todos cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Todo t where t.id in :ids order by t.id")
+    List<Todo> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.sinandemir.todoapp.dto.responses.TodoResponse(t.id, t.title, t.description, t.completed) from Todo t where t.id = :id")
+    Optional<TodoResponse> findResponseById(@Param("id") Long id);
+
+    @Query("select new com.sinandemir.todoapp.dto.responses.TodoResponse(t.id, t.title, t.description, t.completed) from Todo t")
+    List<TodoResponse> findAllResponses();
+
+    @Query("select new com.sinandemir.todoapp.dto.responses.TodoResponse(t.id, t.title, t.description, t.completed) from Todo t where t.id in :ids")
+    List<TodoResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.sinandemir.todoapp.dto.responses.TodoResponse(t.id, t.title, t.description, t.completed) from Todo t")
+    List<TodoResponse> findResponsesBy(Pageable pageable);
+
+    @Query("select new com.sinandemir.todoapp.dto.responses.TodoResponse(t.id, t.title, t.description, t.completed) from Todo t")
+    Slice<TodoResponse> findResponseSliceBy(Pageable pageable);
+
+    @Query("select new com.sinandemir.todoapp.dto.responses.TodoResponse(t.id, t.title, t.description, t.completed) from Todo t where t.completed = :completed")
+    List<TodoResponse> findResponsesByCompleted(@Param("completed") boolean completed, Pageable pageable);
+
+    @Query("select count(t) as total, coalesce(sum(case when t.completed = true then 1 else 0 end), 0) as completed from Todo t")
+    TodoCountsView countTodos();
+
+    List<Todo> findByIdGreaterThan(Long id, Pageable pageable);
+
+    List<Todo> findByIdLessThan(Long id, Pageable pageable);
+
+    @Query(value = "select * from todos where (title, id) > (:title, :id) order by title, id limit :limit", nativeQuery = true)
+    List<Todo> findByTitleAndIdAfter(@Param("title") String title, @Param("id") Long id, @Param("limit") int limit);
+
+    @Query(value = "select * from todos where (title, id) < (:title, :id) order by title desc, id desc limit :limit", nativeQuery = true)
+    List<Todo> findByTitleAndIdBefore(@Param("title") String title, @Param("id") Long id, @Param("limit") int limit);
+
+    @Transactional
+    @Query(value = "update todos set completed = not completed where id = :id returning id, title, description, completed", nativeQuery = true)
+    Optional<TodoStateView> toggleCompleted(@Param("id") Long id);
+
+    @Transactional
+    @Query(value = "delete from todos where id = :id returning completed", nativeQuery = true)
+    Optional<Boolean> deleteByIdReturningCompleted(@Param("id") Long id);
 }
@@ -0,0 +1,8 @@
+package com.sinandemir.todoapp.repositories;
+
+public interface TodoStateView {
+    Long getId();
+    String getTitle();
+    String getDescription();
+    Boolean getCompleted();
+}
@@ -0,0 +1,10 @@
+package com.sinandemir.todoapp.repositories;
+
+import java.util.stream.Stream;
+
+import com.sinandemir.todoapp.entities.Todo;
+
+public interface TodoStreamRepository {
+
+    Stream<Todo> streamAllDetached();
+}
@@ -0,0 +1,35 @@
+package com.sinandemir.todoapp.repositories;
+
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.sinandemir.todoapp.entities.Todo;
+
+import jakarta.persistence.EntityManager;
+
+public class TodoStreamRepositoryImpl implements TodoStreamRepository {
+
+    private EntityManager entityManager;
+
+    @Value("${app.todo-export-fetch-size:500}")
+    private int fetchSize;
+
+    public TodoStreamRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    // postgres only opens a server-side cursor inside a transaction, so callers must hold one
+    @Override
+    public Stream<Todo> streamAllDetached() {
+        return entityManager.createQuery("select t from Todo t order by t.id", Todo.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map((todo) -> {
+                    entityManager.detach(todo);
+                    return todo;
+                });
+    }
+}
@@ -0,0 +1,7 @@
+package com.sinandemir.todoapp.repositories;
+
+public interface UserIdentifierView {
+    Long getId();
+    String getUsername();
+    String getEmail();
+}
@@ -1,17 +1,52 @@
 package com.sinandemir.todoapp.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.sinandemir.todoapp.entities.User;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface UserRepository extends JpaRepository<User,Long>{
     
     Optional<User> findByUsername(String username);
+
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByUsernameOrEmail(String username, String email);
-    Boolean existsByEmail(String email);
-    Boolean existsByUsername(String username);
+
+    @Query("select u from LoginIdentifier li join li.user u left join fetch u.roles where li.identifier = :identifier")
+    Optional<User> findByLoginIdentifier(@Param("identifier") String identifier);
+
+    @Query("select u.id as id, u.username as username, u.email as email from User u where u.username = :username or u.email = :email")
+    List<UserIdentifierView> findIdentifierConflicts(@Param("username") String username, @Param("email") String email);
+
+    // commit flush mode: reads the stored row, not a pending change to a managed user
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("select u.id as id, u.username as username, u.email as email from User u where u.id = :id")
+    Optional<UserIdentifierView> findStoredIdentifiersById(@Param("id") Long id);
+
+    @Query("select u.id as id, u.username as username, u.email as email from User u where u.id > :afterId order by u.id")
+    List<UserIdentifierView> findIdentifiersAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select u.id as userId, r.name as roleName from User u join u.roles r where u.id in :userIds")
+    List<UserRoleView> findRoleNamesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Query("select u.id as id, u.tokenVersion as tokenVersion from User u where u.tokenVersion <> 0")
+    List<UserTokenVersionView> findNonZeroTokenVersions();
+
+    @Transactional
+    @Query(value = "update users set token_version = token_version + 1 where id = :userId returning token_version", nativeQuery = true)
+    Optional<Integer> incrementTokenVersion(@Param("userId") Long userId);
 }
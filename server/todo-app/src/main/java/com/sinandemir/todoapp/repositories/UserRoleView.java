@@ -0,0 +1,6 @@
+package com.sinandemir.todoapp.repositories;
+
+public interface UserRoleView {
+    Long getUserId();
+    String getRoleName();
+}
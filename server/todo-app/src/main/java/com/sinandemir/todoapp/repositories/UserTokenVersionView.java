@@ -0,0 +1,6 @@
+package com.sinandemir.todoapp.repositories;
+
+public interface UserTokenVersionView {
+    Long getId();
+    Integer getTokenVersion();
+}
@@ -0,0 +1,81 @@
+package com.sinandemir.todoapp.security;
+
+import java.util.function.IntToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+    private static final int MAX_STRENGTH = 31;
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final int strength;
+    private final BCryptPasswordEncoder delegate;
+
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+    }
+
+    public static AdaptiveBCryptPasswordEncoder calibrate(long budgetMillis, int minStrength) {
+        return calibrate(budgetMillis, minStrength, AdaptiveBCryptPasswordEncoder::measure);
+    }
+
+    // hashTimer returns the nanoseconds one hash takes at the given strength
+    static AdaptiveBCryptPasswordEncoder calibrate(long budgetMillis, int minStrength, IntToLongFunction hashTimer) {
+        long budgetNanos = budgetMillis * 1_000_000L;
+        hashTimer.applyAsLong(4);
+
+        int strength = minStrength;
+        long elapsed = hashTimer.applyAsLong(strength);
+        while (strength < MAX_STRENGTH && elapsed * 2 <= budgetNanos) {
+            strength++;
+            elapsed = hashTimer.applyAsLong(strength);
+        }
+
+        LOGGER.info("bcrypt strength calibrated to {} ({} ms per hash, budget {} ms)", strength,
+                elapsed / 1_000_000L, budgetMillis);
+        return new AdaptiveBCryptPasswordEncoder(strength);
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(CALIBRATION_PASSWORD);
+        return System.nanoTime() - start;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            return false;
+        }
+        // upgrade only: calibration is noisy and per instance, so a lower target must not pull hashes back down
+        return Integer.parseInt(matcher.group(1)) < strength;
+    }
+}
@@ -0,0 +1,45 @@
+package com.sinandemir.todoapp.security;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String AUTH_PATH = "/api/v1/auth/";
+
+    private AuthRateLimiter authRateLimiter;
+
+    public AuthRateLimitFilter(AuthRateLimiter authRateLimiter) {
+        this.authRateLimiter = authRateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + AUTH_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        // behind a reverse proxy, server.forward-headers-strategy must be set so the remote address is the
+        // client's rather than the proxy's; otherwise every client shares the proxy's bucket
+        if (!authRateLimiter.tryAcquire(AuthRateLimiter.clientKey(request.getRemoteAddr()))) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(authRateLimiter.getRetryAfterSeconds()));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "too many requests, please try again later.");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
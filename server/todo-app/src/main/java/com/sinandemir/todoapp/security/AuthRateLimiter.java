@@ -0,0 +1,110 @@
+package com.sinandemir.todoapp.security;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sinandemir.todoapp.exceptions.TooManyRequestsException;
+
+@Component
+public class AuthRateLimiter {
+
+    private static final int EVICTION_SAMPLE_SIZE = 16;
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final double capacity;
+    private final double refillPerNano;
+    private final int maxBuckets;
+    private final long idleNanos;
+    private final long retryAfterSeconds;
+
+    private final SampledEviction<String, TokenBucket> eviction = new SampledEviction<>(buckets, EVICTION_SAMPLE_SIZE,
+            (bucket) -> bucket.lastAccessNanos);
+
+    public AuthRateLimiter(@Value("${app.auth-rate-limit-capacity:10}") int capacity,
+            @Value("${app.auth-rate-limit-refill-per-minute:10}") int refillPerMinute,
+            @Value("${app.auth-rate-limit-max-buckets:100000}") int maxBuckets,
+            @Value("${app.auth-rate-limit-idle-milliseconds:600000}") long idleMillis) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerMinute / 60_000_000_000.0;
+        this.maxBuckets = maxBuckets;
+        this.idleNanos = idleMillis * 1_000_000L;
+        this.retryAfterSeconds = Math.max(1L, (long) Math.ceil(60.0 / refillPerMinute));
+    }
+
+    public static String clientKey(String remoteAddress) {
+        return "ip:" + remoteAddress;
+    }
+
+    public static String identifierKey(String usernameOrEmail) {
+        return "id:" + (usernameOrEmail == null ? "" : usernameOrEmail.toLowerCase(Locale.ROOT));
+    }
+
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    boolean tryAcquire(String key, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            // bounded work on the request path: losing a bucket only refills that key, so a full map never locks
+            // anyone out
+            if (buckets.size() >= maxBuckets) {
+                eviction.evictOne((candidate) -> now - candidate.lastAccessNanos > idleNanos);
+            }
+            bucket = buckets.computeIfAbsent(key, (k) -> new TokenBucket(capacity, now));
+        }
+        return bucket.tryAcquire(now, capacity, refillPerNano);
+    }
+
+    public void checkLimit(String key) {
+        if (!tryAcquire(key)) {
+            throw new TooManyRequestsException("too many requests, please try again later.", retryAfterSeconds);
+        }
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth-rate-limit-idle-milliseconds:600000}")
+    public void evictIdleBuckets() {
+        evictIdle(System.nanoTime());
+    }
+
+    void evictIdle(long now) {
+        buckets.values().removeIf((bucket) -> now - bucket.lastAccessNanos > idleNanos);
+    }
+
+    private static final class TokenBucket {
+        private double tokens;
+        private long lastRefillNanos;
+        private volatile long lastAccessNanos;
+
+        private TokenBucket(double capacity, long now) {
+            this.tokens = capacity;
+            this.lastRefillNanos = now;
+            this.lastAccessNanos = now;
+        }
+
+        private synchronized boolean tryAcquire(long now, double capacity, double refillPerNano) {
+            lastAccessNanos = now;
+            if (now > lastRefillNanos) {
+                tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+                lastRefillNanos = now;
+            }
+            if (tokens < 1.0) {
+                return false;
+            }
+            tokens -= 1.0;
+            return true;
+        }
+    }
+}
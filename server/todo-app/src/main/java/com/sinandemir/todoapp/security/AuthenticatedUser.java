@@ -0,0 +1,32 @@
+package com.sinandemir.todoapp.security;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+public class AuthenticatedUser extends User {
+
+    private final Long userId;
+    private final String accountUsername;
+
+    public AuthenticatedUser(String usernameOrEmail, String password, Collection<? extends GrantedAuthority> authorities,
+            Long userId, String accountUsername) {
+        super(usernameOrEmail, password, authorities);
+        this.userId = userId;
+        this.accountUsername = accountUsername;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getAccountUsername() {
+        return accountUsername;
+    }
+
+    public List<String> getRoleNames() {
+        return getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+}
@@ -1,37 +1,71 @@
 package com.sinandemir.todoapp.security;
 
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import com.sinandemir.todoapp.entities.User;
+import com.sinandemir.todoapp.services.RoleService;
 import com.sinandemir.todoapp.services.UserService;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private UserService userService;
+    private UserDetailsCache userDetailsCache;
+    private RoleService roleService;
 
-    public CustomUserDetailsService(UserService userService) {
+    public CustomUserDetailsService(UserService userService, UserDetailsCache userDetailsCache,
+            RoleService roleService) {
         this.userService = userService;
+        this.userDetailsCache = userDetailsCache;
+        this.roleService = roleService;
     }
 
     @Override
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
 
-        User user = userService.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail)
+        UserDetails cachedUser = userDetailsCache.get(usernameOrEmail);
+        if (cachedUser != null) {
+            return cachedUser;
+        }
+
+        // taken before the read so an invalidation racing this load keeps the stale copy out
+        long generation = userDetailsCache.generation();
+        User user = userService.findByLoginIdentifier(usernameOrEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("user not exist by username or email."));
 
         Set<GrantedAuthority> authorities = user.getRoles().stream()
-                .map((role) -> new SimpleGrantedAuthority(role.getName())).collect(Collectors.toSet());
+                .map((role) -> roleService.getAuthority(role.getName())).collect(Collectors.toUnmodifiableSet());
+
+        userDetailsCache.put(generation, usernameOrEmail, user.getId(), user.getUsername(), user.getPassword(),
+                authorities);
+
+        return new AuthenticatedUser(usernameOrEmail, user.getPassword(), authorities, user.getId(),
+                user.getUsername());
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+
+        Optional<User> storedUser = userDetails instanceof AuthenticatedUser authenticatedUser
+                ? userService.findById(authenticatedUser.getUserId())
+                : userService.findByLoginIdentifier(userDetails.getUsername());
+        User user = storedUser
+                .orElseThrow(() -> new UsernameNotFoundException("user not exist by username or email."));
+
+        user.setPassword(newPassword);
+        userService.save(user);
 
-        return new org.springframework.security.core.userdetails.User(usernameOrEmail, user.getPassword(), authorities);
+        return new AuthenticatedUser(userDetails.getUsername(), newPassword, userDetails.getAuthorities(),
+                user.getId(), user.getUsername());
     }
 
 }
@@ -2,6 +2,7 @@ package com.sinandemir.todoapp.security;
 
 import java.io.IOException;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,6 +23,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtTokenProvider jwtTokenProvider;
     private UserDetailsService userDetailsService;
 
+    @Value("${app.jwt-stateless-authentication:true}")
+    private boolean statelessAuthentication;
+
     public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
@@ -32,20 +36,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
                 String token = getTokenFromRequest(request);
-                if(StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)){
-                  String username = jwtTokenProvider.getUsername(token);
-                  
-                  UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                if(StringUtils.hasText(token)){
+                  VerifiedToken verifiedToken = jwtTokenProvider.verify(token);
+
+                  if (isNotRevoked(verifiedToken)) {
+                    UserDetails userDetails = loadUserDetails(verifiedToken);
 
-                  UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken( userDetails, null,userDetails.getAuthorities());
-                  authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken( userDetails, null,userDetails.getAuthorities());
+                    authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                  SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                    SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                  }
                 }
 
                 filterChain.doFilter(request, response);
     }
 
+    private boolean isNotRevoked(VerifiedToken verifiedToken) {
+        // a token without a uid cannot be checked against the version registry
+        return verifiedToken.getUserId() != null
+                && jwtTokenProvider.isCurrentVersion(verifiedToken, verifiedToken.getUserId());
+    }
+
+    private UserDetails loadUserDetails(VerifiedToken verifiedToken) {
+        if (statelessAuthentication && verifiedToken.hasAuthorities()) {
+            return new AuthenticatedUser(verifiedToken.getSubject(), "", verifiedToken.getAuthorities(),
+                    verifiedToken.getUserId(), null);
+        }
+        return userDetailsService.loadUserByUsername(verifiedToken.getSubject());
+    }
+
     private String getTokenFromRequest(HttpServletRequest request){
         String bearerToken = request.getHeader("Authorization");
 
@@ -1,36 +1,74 @@
 package com.sinandemir.todoapp.security;
 
+import java.nio.ByteBuffer;
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtTokenProvider {
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String TOKEN_VERSION_CLAIM = "ver";
+
     @Value("${app.jwt-secret}")
     private String jwtSecret;
     @Value("${app.jwt-expiration-milliseconds}")
     private Long jwtExpirationDate;
     @Value("${app.refresh-token-expiration-milliseconds}")
     private Long refreshTokenExpirationDate;
+    @Value("${app.jwt-verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    private Key signingKey;
+    private JwtParser jwtParser;
+    private VerifiedTokenCache verifiedTokenCache;
+    private TokenVersionRegistry tokenVersionRegistry;
 
-    public String generateToken(String username) {
+    public JwtTokenProvider(TokenVersionRegistry tokenVersionRegistry) {
+        this.tokenVersionRegistry = tokenVersionRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokenCache = new VerifiedTokenCache(verifiedCacheSize);
+    }
+
+    public String generateToken(String username, Long userId, Collection<String> roles) {
 
         Date expireDate = new Date(System.currentTimeMillis() + jwtExpirationDate);
 
         String jwtToken = Jwts.builder()
                 .setSubject(username)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLES_CLAIM, roles)
+                .claim(TOKEN_VERSION_CLAIM, tokenVersionRegistry.currentVersion(userId))
                 .setIssuedAt(new Date())
                 .setExpiration(expireDate)
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
 
         return jwtToken;
@@ -41,45 +79,82 @@ public class JwtTokenProvider {
 
         String refreshToken = Jwts.builder()
                 .setSubject(Long.toString(userId))
+                .claim(TOKEN_VERSION_CLAIM, tokenVersionRegistry.currentVersion(userId))
                 .setIssuedAt(new Date())
                 .setExpiration(expireDate)
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
 
         return refreshToken;
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    public long getRefreshTokenExpirationMillis() {
+        return refreshTokenExpirationDate;
+    }
+
+    public Date getExpiration(String jwtToken) {
+        try {
+            return jwtParser.parseClaimsJws(jwtToken).getBody().getExpiration();
+        } catch (ExpiredJwtException e) {
+            return e.getClaims().getExpiration();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public VerifiedToken verify(String jwtToken) {
+        if (!verifiedTokenCache.isEnabled()) {
+            return parse(jwtToken);
+        }
+
+        ByteBuffer digest = ByteBuffer.wrap(TokenHasher.sha256(jwtToken));
+        long nowMillis = System.currentTimeMillis();
+        VerifiedToken cached = verifiedTokenCache.get(digest, nowMillis);
+        if (cached != null) {
+            return cached;
+        }
+
+        VerifiedToken verified = parse(jwtToken);
+        verifiedTokenCache.put(digest, verified, nowMillis);
+        return verified;
+    }
+
+    private VerifiedToken parse(String jwtToken) {
+        Claims claims = jwtParser.parseClaimsJws(jwtToken).getBody();
+        Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        return new VerifiedToken(claims.getSubject(), claims.get(USER_ID_CLAIM, Long.class),
+                authorities(claims.get(ROLES_CLAIM, List.class)), tokenVersion != null ? tokenVersion : 0,
+                claims.getExpiration().getTime());
+    }
+
+    private Collection<GrantedAuthority> authorities(List<?> roles) {
+        if (roles == null) {
+            return null;
+        }
+        Set<GrantedAuthority> authorities = roles.stream()
+                .map((role) -> new SimpleGrantedAuthority(role.toString())).collect(Collectors.toSet());
+        return Set.copyOf(authorities);
     }
 
     public String getUsername(String jwtToken) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(jwtToken)
-                .getBody();
-
-        String username = claims.getSubject();
-        return username;
+        return verify(jwtToken).getSubject();
     }
 
     public Long getUserId(String jwtToken) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(jwtToken)
-                .getBody();
-
-        Long userId = Long.parseLong(claims.getSubject());
-        return userId;
+        return Long.parseLong(verify(jwtToken).getSubject());
     }
 
     public boolean validateToken(String jwtToken) {
-        Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parse(jwtToken);
+        verify(jwtToken);
         return true;
     }
+
+    public boolean isCurrentVersion(VerifiedToken verifiedToken, Long userId) {
+        return verifiedToken.getTokenVersion() == tokenVersionRegistry.currentVersion(userId);
+    }
+
+    public boolean isRefreshTokenCurrent(String refreshToken) {
+        VerifiedToken verifiedToken = verify(refreshToken);
+        return isCurrentVersion(verifiedToken, Long.parseLong(verifiedToken.getSubject()));
+    }
 }
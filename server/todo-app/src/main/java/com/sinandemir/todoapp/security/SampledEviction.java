@@ -0,0 +1,53 @@
+package com.sinandemir.todoapp.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+// approximate lru over a ConcurrentHashMap: drop the first stale entry among a few, else the least recently used of
+// them. each sample resumes where the previous one stopped; restarting at the first bins would keep evicting there
+// while entries in later bins stay forever, however cold
+final class SampledEviction<K, V> {
+
+    private final ConcurrentHashMap<K, V> entries;
+    private final int sampleSize;
+    private final ToLongFunction<V> lastAccess;
+
+    private Iterator<Map.Entry<K, V>> cursor;
+
+    SampledEviction(ConcurrentHashMap<K, V> entries, int sampleSize, ToLongFunction<V> lastAccess) {
+        this.entries = entries;
+        this.sampleSize = sampleSize;
+        this.lastAccess = lastAccess;
+    }
+
+    // bounded work: at most sampleSize entries, and at most one wrap-around. returns whether an entry was removed
+    synchronized boolean evictOne(Predicate<V> isStale) {
+        Map.Entry<K, V> oldest = null;
+        boolean restarted = false;
+        for (int sampled = 0; sampled < sampleSize; sampled++) {
+            if (cursor == null || !cursor.hasNext()) {
+                if (restarted) {
+                    break;
+                }
+                cursor = entries.entrySet().iterator();
+                restarted = true;
+                if (!cursor.hasNext()) {
+                    break;
+                }
+            }
+            Map.Entry<K, V> entry = cursor.next();
+            if (isStale.test(entry.getValue())) {
+                return entries.remove(entry.getKey(), entry.getValue());
+            }
+            // compared by difference so nanoTime stamps order correctly across overflow
+            if (oldest == null
+                    || lastAccess.applyAsLong(entry.getValue()) - lastAccess.applyAsLong(oldest.getValue()) < 0) {
+                oldest = entry;
+            }
+        }
+        return oldest != null && entries.remove(oldest.getKey(), oldest.getValue());
+    }
+}
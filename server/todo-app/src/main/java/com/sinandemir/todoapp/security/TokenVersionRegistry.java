@@ -0,0 +1,131 @@
+package com.sinandemir.todoapp.security;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import com.sinandemir.todoapp.repositories.UserTokenVersionView;
+import com.sinandemir.todoapp.services.UserService;
+
+@Component
+public class TokenVersionRegistry implements SmartInitializingSingleton {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenVersionRegistry.class);
+
+    private UserService userService;
+
+    private volatile VersionTable versions = VersionTable.EMPTY;
+
+    public TokenVersionRegistry(UserService userService) {
+        this.userService = userService;
+    }
+
+    // runs before the web server starts, so no request is authenticated against an empty table
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    public synchronized void reload() {
+        List<UserTokenVersionView> tokenVersions = userService.findNonZeroTokenVersions();
+        long[] userIds = new long[tokenVersions.size()];
+        int[] tokenVersionValues = new int[tokenVersions.size()];
+        for (int i = 0; i < tokenVersions.size(); i++) {
+            userIds[i] = tokenVersions.get(i).getId();
+            tokenVersionValues[i] = tokenVersions.get(i).getTokenVersion();
+        }
+
+        versions = VersionTable.of(userIds, tokenVersionValues, userIds.length);
+        LOGGER.info("token version registry loaded {} revoked users", userIds.length);
+    }
+
+    public int currentVersion(Long userId) {
+        return userId == null ? 0 : versions.get(userId);
+    }
+
+    public synchronized void setVersion(Long userId, int tokenVersion) {
+        VersionTable current = versions;
+        long[] userIds = new long[current.size + 1];
+        int[] tokenVersions = new int[current.size + 1];
+        int size = current.copyInto(userIds, tokenVersions, userId);
+        if (tokenVersion != 0) {
+            userIds[size] = userId;
+            tokenVersions[size] = tokenVersion;
+            size++;
+        }
+
+        versions = VersionTable.of(userIds, tokenVersions, size);
+    }
+
+    public int size() {
+        return versions.size;
+    }
+
+    /**
+     * Immutable open-addressing table from user id to token version. Only
+     * non-zero versions are stored; user ids are positive, so 0 marks an empty
+     * slot.
+     */
+    private static final class VersionTable {
+
+        private static final VersionTable EMPTY = of(new long[0], new int[0], 0);
+
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+        private final int size;
+
+        private VersionTable(int capacity, int size) {
+            this.keys = new long[capacity];
+            this.values = new int[capacity];
+            this.mask = capacity - 1;
+            this.size = size;
+        }
+
+        private static VersionTable of(long[] userIds, int[] tokenVersions, int size) {
+            int capacity = Integer.highestOneBit(Math.max(2, size * 2 - 1)) << 1;
+            VersionTable table = new VersionTable(capacity, size);
+            for (int i = 0; i < size; i++) {
+                int slot = table.slot(userIds[i]);
+                while (table.keys[slot] != 0) {
+                    slot = (slot + 1) & table.mask;
+                }
+                table.keys[slot] = userIds[i];
+                table.values[slot] = tokenVersions[i];
+            }
+            return table;
+        }
+
+        private int get(long userId) {
+            int slot = slot(userId);
+            long key;
+            while ((key = keys[slot]) != 0) {
+                if (key == userId) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return 0;
+        }
+
+        private int copyInto(long[] userIds, int[] tokenVersions, long excludedUserId) {
+            int size = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != 0 && keys[slot] != excludedUserId) {
+                    userIds[size] = keys[slot];
+                    tokenVersions[size] = values[slot];
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        private int slot(long userId) {
+            long hash = userId * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
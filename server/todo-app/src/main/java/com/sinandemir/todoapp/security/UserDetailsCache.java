@@ -0,0 +1,207 @@
+package com.sinandemir.todoapp.security;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.sinandemir.todoapp.entities.User;
+import com.sinandemir.todoapp.services.UserSavedEvent;
+
+@Component
+public class UserDetailsCache {
+
+    private static final int EVICTION_SAMPLE_SIZE = 16;
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final ConcurrentHashMap<String, CachedUserDetails> entries = new ConcurrentHashMap<>();
+    // userId / lower-cased identifier -> its last invalidation, kept for one ttl so no entry loaded before it survives
+    private final ConcurrentHashMap<Long, Invalidation> userInvalidations = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Invalidation> identifierInvalidations = new ConcurrentHashMap<>();
+
+    private final SampledEviction<String, CachedUserDetails> eviction = new SampledEviction<>(entries,
+            EVICTION_SAMPLE_SIZE, (cached) -> cached.lastAccessMillis);
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong forgottenGeneration = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserDetailsCache(@Value("${app.user-details-cache-size:10000}") int maxEntries,
+            @Value("${app.user-details-cache-ttl-milliseconds:300000}") long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public UserDetails get(String usernameOrEmail) {
+        return get(usernameOrEmail, System.currentTimeMillis());
+    }
+
+    // keyed by the identifier exactly as typed: users may differ only by case, and then only an exact match finds them
+    UserDetails get(String usernameOrEmail, long now) {
+        CachedUserDetails cached = entries.get(usernameOrEmail);
+        if (cached != null && !isLive(cached, now)) {
+            if (entries.remove(usernameOrEmail, cached)) {
+                evictions.incrementAndGet();
+            }
+            cached = null;
+        }
+
+        if (cached == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        cached.lastAccessMillis = now;
+        hits.incrementAndGet();
+        // a fresh instance per call: authentication erases credentials on the principal it is handed
+        return new AuthenticatedUser(usernameOrEmail, cached.password, cached.authorities, cached.userId,
+                cached.username);
+    }
+
+    public void put(long loadedGeneration, String usernameOrEmail, Long userId, String username, String password,
+            Collection<GrantedAuthority> authorities) {
+        put(loadedGeneration, usernameOrEmail, userId, username, password, authorities, System.currentTimeMillis());
+    }
+
+    void put(long loadedGeneration, String usernameOrEmail, Long userId, String username, String password,
+            Collection<GrantedAuthority> authorities, long now) {
+        if (maxEntries <= 0) {
+            return;
+        }
+
+        CachedUserDetails cached = new CachedUserDetails(userId, normalize(usernameOrEmail), username, password,
+                authorities, loadedGeneration, now + ttlMillis, now);
+        // the user was invalidated while this copy was being loaded. an invalidation landing after this check is
+        // still caught by get, which compares it against the generation the entry carries
+        if (loadedGeneration < forgottenGeneration.get() || isInvalidated(cached)) {
+            return;
+        }
+        if (entries.size() >= maxEntries && !entries.containsKey(usernameOrEmail)) {
+            if (eviction.evictOne((entry) -> !isLive(entry, now))) {
+                evictions.incrementAndGet();
+            }
+        }
+        entries.put(usernameOrEmail, cached);
+    }
+
+    public void invalidate(Long userId) {
+        invalidate(userId, System.currentTimeMillis());
+    }
+
+    void invalidate(Long userId, long now) {
+        record(userInvalidations, userId, now);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserSaved(UserSavedEvent event) {
+        User user = event.getUser();
+        long now = System.currentTimeMillis();
+        // a new or renamed user can make a cached identifier of any case resolve differently
+        if (user.getUsername() != null) {
+            record(identifierInvalidations, normalize(user.getUsername()), now);
+        }
+        if (user.getEmail() != null) {
+            record(identifierInvalidations, normalize(user.getEmail()), now);
+        }
+        if (user.getId() != null) {
+            invalidate(user.getId(), now);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private boolean isLive(CachedUserDetails cached, long now) {
+        return cached.expiresAtMillis > now && !isInvalidated(cached);
+    }
+
+    private boolean isInvalidated(CachedUserDetails cached) {
+        return isInvalidatedSince(userInvalidations.get(cached.userId), cached.loadedGeneration)
+                || isInvalidatedSince(identifierInvalidations.get(cached.identifier), cached.loadedGeneration);
+    }
+
+    private static boolean isInvalidatedSince(Invalidation invalidation, long loadedGeneration) {
+        return invalidation != null && loadedGeneration < invalidation.generation;
+    }
+
+    // an entry loaded before an invalidation expires within one ttl of it, so older invalidations can be dropped;
+    // only a load slower than the ttl could still carry such a generation, and put refuses those
+    private <K> void record(ConcurrentHashMap<K, Invalidation> invalidations, K key, long now) {
+        Iterator<Invalidation> iterator = invalidations.values().iterator();
+        while (iterator.hasNext()) {
+            Invalidation invalidation = iterator.next();
+            if (invalidation.atMillis + ttlMillis <= now) {
+                iterator.remove();
+                forgottenGeneration.accumulateAndGet(invalidation.generation, Math::max);
+            }
+        }
+        invalidations.put(key, new Invalidation(generation.incrementAndGet(), now));
+    }
+
+    private static String normalize(String usernameOrEmail) {
+        return usernameOrEmail.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class CachedUserDetails {
+        private final Long userId;
+        private final String identifier;
+        private final String username;
+        private final String password;
+        private final Collection<GrantedAuthority> authorities;
+        private final long loadedGeneration;
+        private final long expiresAtMillis;
+        private volatile long lastAccessMillis;
+
+        private CachedUserDetails(Long userId, String identifier, String username, String password,
+                Collection<GrantedAuthority> authorities, long loadedGeneration, long expiresAtMillis,
+                long lastAccessMillis) {
+            this.userId = userId;
+            this.identifier = identifier;
+            this.username = username;
+            this.password = password;
+            this.authorities = authorities;
+            this.loadedGeneration = loadedGeneration;
+            this.expiresAtMillis = expiresAtMillis;
+            this.lastAccessMillis = lastAccessMillis;
+        }
+    }
+
+    private static final class Invalidation {
+        private final long generation;
+        private final long atMillis;
+
+        private Invalidation(long generation, long atMillis) {
+            this.generation = generation;
+            this.atMillis = atMillis;
+        }
+    }
+}
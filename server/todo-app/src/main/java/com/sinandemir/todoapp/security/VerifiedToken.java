@@ -0,0 +1,26 @@
+package com.sinandemir.todoapp.security;
+
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public final class VerifiedToken {
+    private final String subject;
+    private final Long userId;
+    private final Collection<GrantedAuthority> authorities;
+    private final int tokenVersion;
+    private final long expiresAtMillis;
+
+    public boolean hasAuthorities() {
+        return authorities != null;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -0,0 +1,56 @@
+package com.sinandemir.todoapp.security;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class VerifiedTokenCache {
+
+    private static final int EVICTION_SAMPLE_SIZE = 16;
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<ByteBuffer, CachedToken> entries = new ConcurrentHashMap<>();
+    private final SampledEviction<ByteBuffer, CachedToken> eviction;
+
+    public VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.eviction = new SampledEviction<>(entries, EVICTION_SAMPLE_SIZE, (cached) -> cached.lastAccessMillis);
+    }
+
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    public VerifiedToken get(ByteBuffer digest, long nowMillis) {
+        CachedToken cached = entries.get(digest);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.token.isExpired(nowMillis)) {
+            entries.remove(digest, cached);
+            return null;
+        }
+        cached.lastAccessMillis = nowMillis;
+        return cached.token;
+    }
+
+    public void put(ByteBuffer digest, VerifiedToken token, long nowMillis) {
+        if (entries.size() >= maxEntries && !entries.containsKey(digest)) {
+            eviction.evictOne((cached) -> cached.token.isExpired(nowMillis));
+        }
+        entries.put(digest, new CachedToken(token, nowMillis));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class CachedToken {
+        private final VerifiedToken token;
+        private volatile long lastAccessMillis;
+
+        private CachedToken(VerifiedToken token, long lastAccessMillis) {
+            this.token = token;
+            this.lastAccessMillis = lastAccessMillis;
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package com.sinandemir.todoapp.services;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
-import org.modelmapper.ModelMapper;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -17,12 +18,17 @@ import com.sinandemir.todoapp.dto.requests.UserLoginRequest;
 import com.sinandemir.todoapp.dto.requests.UserRegisterRequest;
 import com.sinandemir.todoapp.dto.responses.UserLoginResponse;
 import com.sinandemir.todoapp.dto.responses.UserRegisterResponse;
-import com.sinandemir.todoapp.entities.RefreshToken;
 import com.sinandemir.todoapp.entities.Role;
 import com.sinandemir.todoapp.entities.User;
+import com.sinandemir.todoapp.exceptions.RefreshTokenExpiredException;
 import com.sinandemir.todoapp.exceptions.ResourceNotFoundException;
 import com.sinandemir.todoapp.exceptions.TodoGlobalException;
+import com.sinandemir.todoapp.mappers.UserMapper;
+import com.sinandemir.todoapp.repositories.UserIdentifierView;
+import com.sinandemir.todoapp.security.AuthenticatedUser;
 import com.sinandemir.todoapp.security.JwtTokenProvider;
+import com.sinandemir.todoapp.security.TokenVersionRegistry;
+import com.sinandemir.todoapp.services.RefreshTokenIndex.IndexedRefreshToken;
 
 @Service
 public class AuthService {
@@ -30,31 +36,30 @@ public class AuthService {
     private UserService userService;
     private RoleService roleService;
     private PasswordEncoder passwordEncoder;
-    private ModelMapper modelMapper;
     private AuthenticationManager authenticationManager;
     private JwtTokenProvider jwtTokenProvider;
     private RefreshTokenService refreshTokenService;
+    private UserIdentifierBloomFilter userIdentifierBloomFilter;
+    private TokenVersionRegistry tokenVersionRegistry;
 
     public AuthService(UserService userService, RoleService roleService, PasswordEncoder passwordEncoder,
-            ModelMapper modelMapper, AuthenticationManager authenticationManager, JwtTokenProvider jwtTokenProvider,
-            RefreshTokenService refreshTokenService) {
+            AuthenticationManager authenticationManager, JwtTokenProvider jwtTokenProvider,
+            RefreshTokenService refreshTokenService, UserIdentifierBloomFilter userIdentifierBloomFilter,
+            TokenVersionRegistry tokenVersionRegistry) {
         this.userService = userService;
         this.roleService = roleService;
         this.passwordEncoder = passwordEncoder;
-        this.modelMapper = modelMapper;
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
         this.refreshTokenService = refreshTokenService;
+        this.userIdentifierBloomFilter = userIdentifierBloomFilter;
+        this.tokenVersionRegistry = tokenVersionRegistry;
     }
 
     public UserRegisterResponse register(UserRegisterRequest registerRequest) {
 
-        if (userService.existsByUsername(registerRequest.getUsername())) {
-            throw new TodoGlobalException(HttpStatus.BAD_REQUEST, "username is already exist!");
-        }
-
-        if (userService.existsByEmail(registerRequest.getEmail())) {
-            throw new TodoGlobalException(HttpStatus.BAD_REQUEST, "email is already exist!");
+        if (userIdentifierBloomFilter.mightContainAny(registerRequest.getUsername(), registerRequest.getEmail())) {
+            checkIdentifierConflicts(registerRequest.getUsername(), registerRequest.getEmail());
         }
 
         User user = new User();
@@ -69,8 +74,14 @@ public class AuthService {
 
         user.setRoles(roles);
 
-        User savedUser = userService.save(user);
-        UserRegisterResponse mappedUser = modelMapper.map(savedUser, UserRegisterResponse.class);
+        User savedUser;
+        try {
+            savedUser = userService.save(user);
+        } catch (DataIntegrityViolationException e) {
+            checkIdentifierConflicts(registerRequest.getUsername(), registerRequest.getEmail());
+            throw e;
+        }
+        UserRegisterResponse mappedUser = UserMapper.toRegisterResponse(savedUser);
         return mappedUser;
     }
 
@@ -80,46 +91,73 @@ public class AuthService {
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        String token = jwtTokenProvider.generateToken(loginRequest.getUsernameOrEmail());
-
-        User user = userService.findByUsernameOrEmail(loginRequest.getUsernameOrEmail(),
-                loginRequest.getUsernameOrEmail())
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "user not found with username or email ->" + loginRequest.getUsernameOrEmail()));
-
-        String role = null;
-        Long userId = null;
-        UserLoginResponse loginResponse = new UserLoginResponse();
-
-        userId = user.getId();
-        RefreshToken refreshToken = refreshTokenService.getRefreshTokenByUserId(userId);
-        Optional<Role> roleOptional = user.getRoles().stream().findFirst();
-
-        if (refreshToken != null) {
-            loginResponse.setRefreshToken(refreshToken.getRefreshToken());
-        } else {
-            refreshToken = refreshTokenService.generateRefreshToken(userId);
-            loginResponse.setRefreshToken(refreshToken.getRefreshToken());
+        if (!(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            throw new ResourceNotFoundException(
+                    "user not found with username or email ->" + loginRequest.getUsernameOrEmail());
         }
 
-        if (roleOptional.isPresent()) {
-            Role userRole = roleOptional.get();
-            role = userRole.getName();
-        }
+        List<String> roleNames = user.getRoleNames();
+        // the account username, as refreshAccessToken uses: the typed identifier may be the email or differ in case
+        String token = jwtTokenProvider.generateToken(user.getAccountUsername(), user.getUserId(), roleNames);
+        String refreshToken = refreshTokenService.getOrCreateRefreshToken(user.getUserId(),
+                user.getAccountUsername(), roleNames);
 
+        UserLoginResponse loginResponse = new UserLoginResponse();
         loginResponse.setAccessToken(token);
-        loginResponse.setRole(role);
-        loginResponse.setUserId(userId);
+        loginResponse.setRefreshToken(refreshToken);
+        loginResponse.setRole(roleNames.isEmpty() ? null : roleNames.get(0));
+        loginResponse.setUserId(user.getUserId());
         return loginResponse;
     }
 
     public String refreshAccessToken(String refreshToken) {
+        if (refreshTokenService.isOpaqueMode()) {
+            IndexedRefreshToken indexedToken = refreshTokenService.resolveOpaqueRefreshToken(refreshToken);
+            if (indexedToken != null) {
+                return jwtTokenProvider.generateToken(indexedToken.getUsername(), indexedToken.getUserId(),
+                        indexedToken.getRoleNames());
+            }
+            return null;
+        }
+
         Long userId = jwtTokenProvider.getUserId(refreshToken);
+        if (!jwtTokenProvider.isRefreshTokenCurrent(refreshToken)) {
+            throw new RefreshTokenExpiredException("refresh token has been revoked.");
+        }
+
         Optional<User> user = userService.findById(userId);
         if (jwtTokenProvider.validateToken(refreshToken)) {
-            String newJwtToken = jwtTokenProvider.generateToken(user.get().getUsername());
+            String newJwtToken = jwtTokenProvider.generateToken(user.get().getUsername(), userId,
+                    getRoleNames(user.get()));
             return newJwtToken;
         }
         return null;
     }
+
+    public void logoutAll(Long userId) {
+        int tokenVersion = userService.incrementTokenVersion(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("user not found with id ->" + userId));
+
+        tokenVersionRegistry.setVersion(userId, tokenVersion);
+        refreshTokenService.deleteRefreshTokenByUserId(userId);
+    }
+
+    private void checkIdentifierConflicts(String username, String email) {
+        List<UserIdentifierView> conflicts = userService.findIdentifierConflicts(username, email);
+
+        if (conflicts.stream().anyMatch((conflict) -> conflict.getUsername().equals(username))) {
+            throw new TodoGlobalException(HttpStatus.BAD_REQUEST, "username is already exist!");
+        }
+
+        if (conflicts.stream().anyMatch((conflict) -> conflict.getEmail().equals(email))) {
+            throw new TodoGlobalException(HttpStatus.BAD_REQUEST, "email is already exist!");
+        }
+    }
+
+    private List<String> getRoleNames(User user) {
+        if (user.getRoles() == null) {
+            return List.of();
+        }
+        return user.getRoles().stream().map(Role::getName).toList();
+    }
 }
\ No newline at end of file
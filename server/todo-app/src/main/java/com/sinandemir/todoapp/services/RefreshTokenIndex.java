@@ -0,0 +1,93 @@
+package com.sinandemir.todoapp.services;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.sinandemir.todoapp.entities.Role;
+import com.sinandemir.todoapp.entities.User;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Component
+public class RefreshTokenIndex {
+
+    private final ConcurrentHashMap<String, IndexedRefreshToken> tokens = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> tokensByUserId = new ConcurrentHashMap<>();
+
+    public IndexedRefreshToken get(String refreshToken) {
+        return tokens.get(refreshToken);
+    }
+
+    public void put(String refreshToken, IndexedRefreshToken indexedToken) {
+        String previousToken = tokensByUserId.put(indexedToken.getUserId(), refreshToken);
+        if (previousToken != null && !previousToken.equals(refreshToken)) {
+            tokens.remove(previousToken);
+        }
+        tokens.put(refreshToken, indexedToken);
+    }
+
+    public void remove(String refreshToken) {
+        IndexedRefreshToken indexedToken = tokens.remove(refreshToken);
+        if (indexedToken != null) {
+            tokensByUserId.remove(indexedToken.getUserId(), refreshToken);
+        }
+    }
+
+    public void removeByUserId(Long userId) {
+        String refreshToken = tokensByUserId.remove(userId);
+        if (refreshToken != null) {
+            tokens.remove(refreshToken);
+        }
+    }
+
+    public int removeExpired(long nowMillis) {
+        int removed = 0;
+        for (var entry : tokens.entrySet()) {
+            if (entry.getValue().isExpired(nowMillis) && tokens.remove(entry.getKey(), entry.getValue())) {
+                tokensByUserId.remove(entry.getValue().getUserId(), entry.getKey());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public void clear() {
+        tokens.clear();
+        tokensByUserId.clear();
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    @EventListener
+    public void onUserSaved(UserSavedEvent event) {
+        User user = event.getUser();
+        String refreshToken = tokensByUserId.get(user.getId());
+        if (refreshToken == null) {
+            return;
+        }
+
+        List<String> roleNames = user.getRoles() == null ? List.of()
+                : user.getRoles().stream().map(Role::getName).toList();
+        tokens.computeIfPresent(refreshToken, (token, indexedToken) -> new IndexedRefreshToken(
+                indexedToken.getUserId(), user.getUsername(), roleNames, indexedToken.getExpiresAtMillis()));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class IndexedRefreshToken {
+        private final Long userId;
+        private final String username;
+        private final List<String> roleNames;
+        private final long expiresAtMillis;
+
+        public boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.sinandemir.todoapp.services;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.sinandemir.todoapp.repositories.RefreshTokenRepository;
+
+@Service
+public class RefreshTokenPurgeService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RefreshTokenPurgeService.class);
+
+    private RefreshTokenRepository refreshTokenRepos;
+    private RefreshTokenIndex refreshTokenIndex;
+
+    @Value("${app.refresh-token-purge-batch-size:1000}")
+    private int batchSize;
+    @Value("${app.refresh-token-purge-pause-milliseconds:100}")
+    private long pauseMillis;
+
+    private volatile long lastPurgedCount;
+
+    public RefreshTokenPurgeService(RefreshTokenRepository refreshTokenRepos, RefreshTokenIndex refreshTokenIndex) {
+        this.refreshTokenRepos = refreshTokenRepos;
+        this.refreshTokenIndex = refreshTokenIndex;
+    }
+
+    @Scheduled(fixedDelayString = "${app.refresh-token-purge-interval-milliseconds:3600000}",
+            initialDelayString = "${app.refresh-token-purge-initial-delay-milliseconds:60000}")
+    public long purgeExpiredRefreshTokens() {
+        long startedAt = System.currentTimeMillis();
+        Instant now = Instant.now();
+        long purgedCount = 0;
+        Long lastId = 0L;
+
+        List<Long> expiredIds = refreshTokenRepos.findExpiredIdsAfter(lastId, now, PageRequest.ofSize(batchSize));
+        while (!expiredIds.isEmpty()) {
+            purgedCount += refreshTokenRepos.deleteExpiredByIdIn(expiredIds, now);
+            lastId = expiredIds.get(expiredIds.size() - 1);
+
+            if (expiredIds.size() < batchSize || !pause()) {
+                break;
+            }
+            expiredIds = refreshTokenRepos.findExpiredIdsAfter(lastId, now, PageRequest.ofSize(batchSize));
+        }
+
+        refreshTokenIndex.removeExpired(now.toEpochMilli());
+        lastPurgedCount = purgedCount;
+        LOGGER.info("purged {} expired refresh tokens in {} ms", purgedCount, System.currentTimeMillis() - startedAt);
+        return purgedCount;
+    }
+
+    private boolean pause() {
+        if (pauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public long getLastPurgedCount() {
+        return lastPurgedCount;
+    }
+}
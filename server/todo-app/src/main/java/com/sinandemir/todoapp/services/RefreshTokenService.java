@@ -1,55 +1,172 @@
 package com.sinandemir.todoapp.services;
 
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.sinandemir.todoapp.entities.RefreshToken;
-import com.sinandemir.todoapp.entities.User;
+import com.sinandemir.todoapp.exceptions.RefreshTokenExpiredException;
 import com.sinandemir.todoapp.exceptions.ResourceNotFoundException;
 import com.sinandemir.todoapp.repositories.RefreshTokenRepository;
+import com.sinandemir.todoapp.repositories.RefreshTokenView;
+import com.sinandemir.todoapp.repositories.UserRoleView;
 import com.sinandemir.todoapp.security.JwtTokenProvider;
+import com.sinandemir.todoapp.security.TokenHasher;
+import com.sinandemir.todoapp.services.RefreshTokenIndex.IndexedRefreshToken;
 
 @Service
 public class RefreshTokenService {
+
+    private static final String OPAQUE_MODE = "opaque";
+    private static final int OPAQUE_TOKEN_BYTES = 16;
+    private static final int INDEX_LOAD_BATCH_SIZE = 1000;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
     private RefreshTokenRepository refreshTokenRepos;
     private JwtTokenProvider tokenProvider;
     private UserService userService;
+    private RefreshTokenIndex refreshTokenIndex;
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.refresh-token-mode:jwt}")
+    private String refreshTokenMode;
 
     public RefreshTokenService(RefreshTokenRepository refreshTokenRepos, JwtTokenProvider tokenProvider,
-            UserService userService) {
+            UserService userService, RefreshTokenIndex refreshTokenIndex,
+            PlatformTransactionManager transactionManager) {
         this.refreshTokenRepos = refreshTokenRepos;
         this.tokenProvider = tokenProvider;
         this.userService = userService;
+        this.refreshTokenIndex = refreshTokenIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    public RefreshToken generateRefreshToken(Long userId) {
-        Optional<User> user = userService.findById(userId);
-        if (user.isPresent()) {
-            RefreshToken refreshToken = new RefreshToken();
-            String token = tokenProvider.generateRefreshToken(userId);
-            refreshToken.setRefreshToken(token);
-            refreshToken.setUser(user.get());
-            RefreshToken savedRefreshToken = refreshTokenRepos.save(refreshToken);
-            return savedRefreshToken;
+    public boolean isOpaqueMode() {
+        return OPAQUE_MODE.equalsIgnoreCase(refreshTokenMode);
+    }
+
+    public String getOrCreateRefreshToken(Long userId, String username, List<String> roleNames) {
+        // the upsert is the only way a refresh token row is created
+        String token = isOpaqueMode() ? generateOpaqueToken() : tokenProvider.generateRefreshToken(userId);
+        byte[] tokenHash = TokenHasher.sha256(token);
+        Instant now = Instant.now();
+        Instant expiresAt = now.plusMillis(tokenProvider.getRefreshTokenExpirationMillis());
+
+        Optional<String> refreshToken = refreshTokenRepos.upsertRefreshToken(userId, token, tokenHash, expiresAt, now);
+        if (refreshToken.isEmpty()) {
+            // a concurrent login inserted the row after this statement's snapshot was taken
+            refreshToken = refreshTokenRepos.upsertRefreshToken(userId, token, tokenHash, expiresAt, now);
         }
-        return null;
+
+        if (refreshToken.isPresent() && isOpaqueMode() && refreshToken.get().equals(token)) {
+            refreshTokenIndex.put(token, new IndexedRefreshToken(userId, username, roleNames,
+                    expiresAt.toEpochMilli()));
+        }
+        return refreshToken.orElse(null);
     }
 
-    public RefreshToken getRefreshTokenByUserId(Long userId) {
-        Optional<RefreshToken> refreshToken = refreshTokenRepos.findByUserId(userId);
-        if (refreshToken.isPresent()) {
-            return refreshToken.get();
+    public IndexedRefreshToken resolveOpaqueRefreshToken(String refreshToken) {
+        IndexedRefreshToken indexedToken = refreshTokenIndex.get(refreshToken);
+        if (indexedToken == null) {
+            return null;
+        }
+
+        if (indexedToken.isExpired(System.currentTimeMillis())) {
+            refreshTokenIndex.remove(refreshToken);
+            refreshTokenRepos.deleteByRefreshTokenHash(TokenHasher.sha256(refreshToken));
+            throw new RefreshTokenExpiredException("refresh token has expired.");
         }
-        return null;
+        return indexedToken;
     }
 
     public void deleteRefreshTokenByRefreshToken(String refreshToken) {
-        RefreshToken findRefreshToken = refreshTokenRepos.findByRefreshToken(refreshToken).orElseThrow(
-            () -> new ResourceNotFoundException("refresh token not found with token -> " + refreshToken)
-        );
+        refreshTokenIndex.remove(refreshToken);
+        int deletedCount = refreshTokenRepos.deleteByRefreshTokenHash(TokenHasher.sha256(refreshToken));
+
+        if (deletedCount == 0) {
+            throw new ResourceNotFoundException("refresh token not found with token -> " + refreshToken);
+        }
+    }
 
-        refreshTokenRepos.deleteById(findRefreshToken.getId());
+    public void deleteRefreshTokenByUserId(Long userId) {
+        refreshTokenIndex.removeByUserId(userId);
+        refreshTokenRepos.deleteByUserId(userId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        backfillRefreshTokens();
+        if (isOpaqueMode()) {
+            rebuildIndex();
+        }
+    }
+
+    public void backfillRefreshTokens() {
+        int backfilledCount;
+        do {
+            backfilledCount = backfillRefreshTokenBatch();
+        } while (backfilledCount > 0);
+    }
+
+    // one transaction per batch: the loaded rows stay managed, so the commit flushes them as batched updates
+    private int backfillRefreshTokenBatch() {
+        return transactionTemplate.execute((status) -> {
+            List<RefreshToken> refreshTokens = refreshTokenRepos.findTop500ByRefreshTokenHashIsNullOrExpiresAtIsNull();
+            for (RefreshToken refreshToken : refreshTokens) {
+                refreshToken.setRefreshTokenHash(TokenHasher.sha256(refreshToken.getRefreshToken()));
+                if (refreshToken.getExpiresAt() == null) {
+                    Date expiration = tokenProvider.getExpiration(refreshToken.getRefreshToken());
+                    refreshToken.setExpiresAt(expiration != null ? expiration.toInstant() : Instant.now());
+                }
+            }
+            return refreshTokens.size();
+        });
+    }
+
+    public void rebuildIndex() {
+        refreshTokenIndex.clear();
+        Instant now = Instant.now();
+        Long lastId = 0L;
+
+        List<RefreshTokenView> batch = refreshTokenRepos.findActiveAfter(lastId, now,
+                PageRequest.ofSize(INDEX_LOAD_BATCH_SIZE));
+        while (!batch.isEmpty()) {
+            Map<Long, List<String>> roleNamesByUserId = new HashMap<>();
+            List<Long> userIds = batch.stream().map(RefreshTokenView::getUserId).toList();
+            for (UserRoleView userRole : userService.findRoleNamesByUserIds(userIds)) {
+                roleNamesByUserId.computeIfAbsent(userRole.getUserId(), (id) -> new ArrayList<>())
+                        .add(userRole.getRoleName());
+            }
+
+            for (RefreshTokenView view : batch) {
+                refreshTokenIndex.put(view.getRefreshToken(), new IndexedRefreshToken(view.getUserId(),
+                        view.getUsername(), List.copyOf(roleNamesByUserId.getOrDefault(view.getUserId(), List.of())),
+                        view.getExpiresAt().toEpochMilli()));
+            }
+
+            lastId = batch.get(batch.size() - 1).getId();
+            batch = refreshTokenRepos.findActiveAfter(lastId, now, PageRequest.ofSize(INDEX_LOAD_BATCH_SIZE));
+        }
+    }
 
+    private String generateOpaqueToken() {
+        byte[] bytes = new byte[OPAQUE_TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
     }
 }
@@ -1,5 +1,14 @@
 package com.sinandemir.todoapp.services;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import com.sinandemir.todoapp.entities.Role;
@@ -8,13 +17,55 @@ import com.sinandemir.todoapp.repositories.RoleRepository;
 @Service
 public class RoleService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(RoleService.class);
+
     private RoleRepository roleRepository;
 
+    private volatile Map<String, Long> roleIdsByName;
+    private volatile Map<String, GrantedAuthority> authoritiesByName = Map.of();
+
     public RoleService(RoleRepository roleRepository) {
         this.roleRepository = roleRepository;
     }
 
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        Map<String, Long> roleIds = new HashMap<>();
+        Map<String, GrantedAuthority> authorities = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            roleIds.put(role.getName(), role.getId());
+            authorities.put(role.getName(), new SimpleGrantedAuthority(role.getName()));
+        }
+
+        authoritiesByName = Map.copyOf(authorities);
+        roleIdsByName = Map.copyOf(roleIds);
+        LOGGER.info("role registry loaded {} roles", roleIds.size());
+    }
+
     public Role findByName(String name) {
-        return roleRepository.findByName(name);
+        Long roleId = getRoleIds().get(name);
+        if (roleId == null) {
+            return null;
+        }
+        return new Role(roleId, name);
+    }
+
+    public GrantedAuthority getAuthority(String name) {
+        getRoleIds();
+        GrantedAuthority authority = authoritiesByName.get(name);
+        return authority != null ? authority : new SimpleGrantedAuthority(name);
+    }
+
+    public int size() {
+        return getRoleIds().size();
+    }
+
+    private Map<String, Long> getRoleIds() {
+        Map<String, Long> roleIds = roleIdsByName;
+        if (roleIds == null) {
+            refresh();
+            roleIds = roleIdsByName;
+        }
+        return roleIds;
     }
 }
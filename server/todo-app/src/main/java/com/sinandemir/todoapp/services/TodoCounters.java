@@ -0,0 +1,84 @@
+package com.sinandemir.todoapp.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sinandemir.todoapp.dto.responses.TodoCountsResponse;
+import com.sinandemir.todoapp.repositories.TodoCountsView;
+import com.sinandemir.todoapp.repositories.TodoRepository;
+
+// counts per instance: each JVM only sees its own writes, so with more than one instance every counter is off by
+// the other instances' writes until its next reconcile
+@Component
+public class TodoCounters {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TodoCounters.class);
+
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+
+    private TodoRepository todoRepos;
+
+    public TodoCounters(TodoRepository todoRepos) {
+        this.todoRepos = todoRepos;
+    }
+
+    public void onAdded(boolean todoCompleted) {
+        total.incrementAndGet();
+        if (todoCompleted) {
+            completed.incrementAndGet();
+        }
+    }
+
+    public void onDeleted(boolean todoCompleted) {
+        total.decrementAndGet();
+        if (todoCompleted) {
+            completed.decrementAndGet();
+        }
+    }
+
+    public void onCompletedChanged(boolean wasCompleted, boolean isCompleted) {
+        if (wasCompleted != isCompleted) {
+            completed.addAndGet(isCompleted ? 1 : -1);
+        }
+    }
+
+    public void onBatchChanged(long totalDelta, long completedDelta) {
+        total.addAndGet(totalDelta);
+        completed.addAndGet(completedDelta);
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public TodoCountsResponse snapshot() {
+        long totalCount = total.get();
+        long completedCount = completed.get();
+        return new TodoCountsResponse(totalCount, completedCount, totalCount - completedCount);
+    }
+
+    // writes racing with the count are off by at most their own delta until the next run
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.todo-counters-reconcile-interval-milliseconds:300000}",
+            initialDelayString = "${app.todo-counters-reconcile-interval-milliseconds:300000}")
+    public void reconcile() {
+        TodoCountsView counts = todoRepos.countTodos();
+        long drift = total.getAndSet(counts.getTotal()) - counts.getTotal();
+        completed.set(counts.getCompleted());
+
+        if (drift != 0) {
+            LOGGER.info("todo counters reconciled, total drifted by {}", drift);
+        }
+    }
+}
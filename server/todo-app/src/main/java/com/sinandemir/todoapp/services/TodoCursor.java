@@ -0,0 +1,55 @@
+package com.sinandemir.todoapp.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.http.HttpStatus;
+
+import com.sinandemir.todoapp.entities.Todo;
+import com.sinandemir.todoapp.exceptions.TodoGlobalException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Opaque keyset position: the sort it belongs to plus the last (sort key, id)
+ * pair, base64url encoded as {@code sort:direction:id[:title]}.
+ */
+@Getter
+@AllArgsConstructor
+public final class TodoCursor {
+
+    private final String sort;
+    private final boolean descending;
+    private final Long id;
+    private final String title;
+
+    public static TodoCursor after(Todo todo, String sort, boolean descending) {
+        return new TodoCursor(sort, descending, todo.getId(),
+                TodoService.TITLE_SORT.equals(sort) ? todo.getTitle() : null);
+    }
+
+    public String encode() {
+        String value = sort + ":" + (descending ? "desc" : "asc") + ":" + id + (title != null ? ":" + title : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TodoCursor decode(String cursor, String sort, boolean descending) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = value.split(":", 4);
+            boolean titleSort = TodoService.TITLE_SORT.equals(sort);
+            if (parts.length != (titleSort ? 4 : 3) || !parts[0].equals(sort)
+                    || !parts[1].equals(descending ? "desc" : "asc")) {
+                throw invalidCursor();
+            }
+            return new TodoCursor(sort, descending, Long.parseLong(parts[2]), titleSort ? parts[3] : null);
+        } catch (IllegalArgumentException e) {
+            throw invalidCursor();
+        }
+    }
+
+    private static TodoGlobalException invalidCursor() {
+        return new TodoGlobalException(HttpStatus.BAD_REQUEST, "cursor is not valid for this sort!");
+    }
+}
@@ -0,0 +1,103 @@
+package com.sinandemir.todoapp.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sinandemir.todoapp.entities.Todo;
+import com.sinandemir.todoapp.exceptions.TodoGlobalException;
+import com.sinandemir.todoapp.mappers.TodoMapper;
+import com.sinandemir.todoapp.repositories.TodoRepository;
+
+@Service
+public class TodoExportService {
+
+    static final String NDJSON = "ndjson";
+    static final String CSV = "csv";
+
+    private static final MediaType NDJSON_MEDIA_TYPE = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV_MEDIA_TYPE = MediaType.parseMediaType("text/csv");
+
+    private TodoRepository todoRepos;
+    private ObjectMapper objectMapper;
+
+    public TodoExportService(TodoRepository todoRepos, ObjectMapper objectMapper) {
+        this.todoRepos = todoRepos;
+        this.objectMapper = objectMapper;
+    }
+
+    public MediaType getMediaType(String format) {
+        if (NDJSON.equals(format)) {
+            return NDJSON_MEDIA_TYPE;
+        }
+        if (CSV.equals(format)) {
+            return CSV_MEDIA_TYPE;
+        }
+        throw new TodoGlobalException(HttpStatus.BAD_REQUEST, "export format is not supported!");
+    }
+
+    @Transactional(readOnly = true)
+    public void exportTodos(String format, OutputStream outputStream) throws IOException {
+        getMediaType(format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        try (Stream<Todo> todos = todoRepos.streamAllDetached()) {
+            if (NDJSON.equals(format)) {
+                writeNdjson(todos.iterator(), writer);
+            } else {
+                writeCsv(todos.iterator(), writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Iterator<Todo> todos, Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        while (todos.hasNext()) {
+            generator.writeObject(TodoMapper.toResponse(todos.next()));
+            generator.writeRaw('\n');
+        }
+        generator.close();
+    }
+
+    private void writeCsv(Iterator<Todo> todos, Writer writer) throws IOException {
+        writer.write("id,title,description,completed\n");
+        while (todos.hasNext()) {
+            Todo todo = todos.next();
+            writer.write(String.valueOf(todo.getId()));
+            writer.write(',');
+            writeCsvField(todo.getTitle(), writer);
+            writer.write(',');
+            writeCsvField(todo.getDescription(), writer);
+            writer.write(',');
+            writer.write(String.valueOf(todo.isCompleted()));
+            writer.write('\n');
+        }
+    }
+
+    private void writeCsvField(String value, Writer writer) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,191 @@
+package com.sinandemir.todoapp.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.sinandemir.todoapp.dto.requests.TodoRequest;
+import com.sinandemir.todoapp.dto.responses.TodoBatchItemResponse;
+import com.sinandemir.todoapp.dto.responses.TodoImportResponse;
+import com.sinandemir.todoapp.entities.Todo;
+import com.sinandemir.todoapp.mappers.TodoMapper;
+import com.sinandemir.todoapp.repositories.TodoRepository;
+
+import jakarta.persistence.EntityManager;
+
+@Service
+public class TodoImportService {
+
+    private TodoRepository todoRepos;
+    private TodoCounters todoCounters;
+    private TodoSearchIndex todoSearchIndex;
+    private EntityManager entityManager;
+    private ObjectReader todoReader;
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.todo-import-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.todo-import-max-errors:100}")
+    private int maxErrors;
+
+    @Value("${app.todo-import-max-line-length:65536}")
+    private int maxLineLength;
+
+    public TodoImportService(TodoRepository todoRepos, TodoCounters todoCounters, TodoSearchIndex todoSearchIndex,
+            EntityManager entityManager, ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.todoRepos = todoRepos;
+        this.todoCounters = todoCounters;
+        this.todoSearchIndex = todoSearchIndex;
+        this.entityManager = entityManager;
+        this.todoReader = objectMapper.readerFor(TodoRequest.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public TodoImportResponse importTodos(InputStream inputStream) throws IOException {
+        BoundedLineReader reader = new BoundedLineReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8),
+                maxLineLength);
+        List<Todo> chunk = new ArrayList<>(chunkSize);
+        List<TodoBatchItemResponse> errors = new ArrayList<>();
+        long imported = 0;
+        long failed = 0;
+        int lineNumber = 0;
+        while (reader.next()) {
+            lineNumber++;
+            TodoBatchItemResponse error = null;
+            if (reader.isTooLong()) {
+                error = TodoValidator.invalidItem(lineNumber, null,
+                        "line is longer than " + maxLineLength + " characters.");
+            } else {
+                String line = reader.line();
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    TodoRequest todoRequest = todoReader.readValue(line);
+                    String invalidReason = todoRequest == null ? TodoValidator.REQUIRED
+                            : TodoValidator.invalidReason(todoRequest.getTitle(), todoRequest.getDescription());
+                    if (invalidReason != null) {
+                        error = TodoValidator.invalidItem(lineNumber, null, invalidReason);
+                    } else {
+                        chunk.add(TodoMapper.toEntity(todoRequest));
+                    }
+                } catch (JsonProcessingException e) {
+                    error = TodoValidator.invalidItem(lineNumber, null, "line is not a valid todo.");
+                }
+            }
+
+            if (error != null) {
+                failed++;
+                if (errors.size() < maxErrors) {
+                    errors.add(error);
+                }
+            } else if (chunk.size() == chunkSize) {
+                imported += saveChunk(chunk);
+                chunk.clear();
+            }
+        }
+
+        imported += saveChunk(chunk);
+        return new TodoImportResponse(imported, failed, errors);
+    }
+
+    // commits each chunk and clears it from the persistence context, which open-in-view keeps for the whole request
+    private int saveChunk(List<Todo> todos) {
+        if (todos.isEmpty()) {
+            return 0;
+        }
+
+        transactionTemplate.executeWithoutResult((status) -> {
+            todoRepos.saveAll(todos);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        long completedCount = todos.stream().filter(Todo::isCompleted).count();
+        todoCounters.onBatchChanged(todos.size(), completedCount);
+        todoSearchIndex.indexAll(todos);
+        return todos.size();
+    }
+
+    /**
+     * Splits the input into lines like BufferedReader.readLine, but never
+     * holds more than maxLength characters of one line: the rest of a longer
+     * line is skipped and the line is reported as too long.
+     */
+    private static final class BoundedLineReader {
+
+        private final Reader reader;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean tooLong;
+
+        private BoundedLineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        // false once the input is exhausted
+        private boolean next() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(reader.read(buffer, 0, buffer.length), 0);
+                    position = 0;
+                    if (limit == 0) {
+                        return read;
+                    }
+                }
+                read = true;
+
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                append(start, position);
+                if (position < limit) {
+                    position++;
+                    return true;
+                }
+            }
+        }
+
+        private String line() {
+            int length = line.length();
+            return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line.toString();
+        }
+
+        private boolean isTooLong() {
+            return tooLong;
+        }
+
+        private void append(int start, int end) {
+            if (tooLong) {
+                return;
+            }
+            if (line.length() + end - start > maxLength) {
+                tooLong = true;
+                line.setLength(0);
+                return;
+            }
+            line.append(buffer, start, end - start);
+        }
+    }
+}
@@ -0,0 +1,670 @@
+package com.sinandemir.todoapp.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sinandemir.todoapp.entities.Todo;
+import com.sinandemir.todoapp.repositories.TodoRepository;
+
+/**
+ * In-memory inverted index over todo titles and descriptions. Terms are kept
+ * in a sorted map so a query token matches every term it is a prefix of, and
+ * each term's postings are parallel int arrays of document ordinals and
+ * weights, in ordinal order. Deleted documents are only cleared from the live
+ * set. Once they outnumber the live ones, a scheduled compaction copies the
+ * live documents into a new segment, a bounded step at a time. A rebuild
+ * loads a new segment from the table instead. Either one runs without
+ * blocking readers or writers and swaps its segment in after replaying the
+ * writes made meanwhile.
+ */
+@Component
+public class TodoSearchIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TodoSearchIndex.class);
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int MAX_TOKEN_LENGTH = 32;
+    private static final int MAX_QUERY_TOKENS = 8;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+    private static final int MIN_DEAD_DOCS_TO_COMPACT = 1024;
+    private static final int LOOKUP_COST_FACTOR = 16;
+    private static final int WRITE_STEP = 256;
+    private static final int COMPACTION_STEP = 65536;
+
+    private TodoRepository todoRepos;
+    private TransactionTemplate readOnlyTransaction;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+    private List<Consumer<Segment>> pendingWrites;
+
+    public TodoSearchIndex(TodoRepository todoRepos, PlatformTransactionManager transactionManager) {
+        this.todoRepos = todoRepos;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment rebuilt = new Segment();
+        try {
+            readOnlyTransaction.executeWithoutResult((status) -> {
+                try (Stream<Todo> todos = todoRepos.streamAllDetached()) {
+                    todos.forEach((todo) -> rebuilt.add(todo.getId(), todo.getTitle(), todo.getDescription()));
+                }
+            });
+        } catch (RuntimeException e) {
+            discardPendingWrites();
+            throw e;
+        }
+
+        swapIn(rebuilt);
+        LOGGER.info("todo search index loaded {} todos and {} terms", rebuilt.liveCount,
+                rebuilt.postingsByTerm.size());
+    }
+
+    // copies the live documents of the current segment in read-locked steps, so writers wait for one step at most
+    @Scheduled(fixedDelayString = "${app.todo-search-compaction-interval-milliseconds:10000}",
+            initialDelayString = "${app.todo-search-compaction-interval-milliseconds:10000}")
+    public synchronized void compactIfNeeded() {
+        Segment source;
+        int deadCount;
+        lock.writeLock().lock();
+        try {
+            if (!segment.needsCompaction()) {
+                return;
+            }
+            source = segment;
+            deadCount = source.docCount - source.liveCount;
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment compacted = new Segment();
+        try {
+            // documents added from here on are in the pending writes, so the copy stops at this count
+            int sourceDocCount;
+            lock.readLock().lock();
+            try {
+                sourceDocCount = source.docCount;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            int[] compactDocs = new int[sourceDocCount];
+            for (int from = 0; from < sourceDocCount; from += COMPACTION_STEP) {
+                lock.readLock().lock();
+                try {
+                    compacted.copyLiveDocs(source, compactDocs, from, Math.min(from + COMPACTION_STEP, sourceDocCount));
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+
+            String lastTerm = null;
+            do {
+                lock.readLock().lock();
+                try {
+                    lastTerm = compacted.copyPostings(source, compactDocs, lastTerm, COMPACTION_STEP);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            } while (lastTerm != null);
+        } catch (RuntimeException e) {
+            discardPendingWrites();
+            throw e;
+        }
+
+        swapIn(compacted);
+        LOGGER.info("todo search index compacted {} deleted todos away", deadCount);
+    }
+
+    public void index(Long todoId, String title, String description) {
+        write((target) -> target.replace(todoId, title, description));
+    }
+
+    // the write is kept for replay while a rebuild or compaction runs, so it must not see later changes to the list
+    public void indexAll(Collection<Todo> todos) {
+        List<Todo> snapshot = List.copyOf(todos);
+        // a step at a time, so a large batch never holds the write lock for its whole length
+        for (int from = 0; from < snapshot.size(); from += WRITE_STEP) {
+            List<Todo> step = snapshot.subList(from, Math.min(from + WRITE_STEP, snapshot.size()));
+            write((target) -> {
+                for (Todo todo : step) {
+                    target.replace(todo.getId(), todo.getTitle(), todo.getDescription());
+                }
+            });
+        }
+    }
+
+    public void remove(Long todoId) {
+        removeAll(List.of(todoId));
+    }
+
+    public void removeAll(Collection<Long> todoIds) {
+        List<Long> snapshot = List.copyOf(todoIds);
+        for (int from = 0; from < snapshot.size(); from += WRITE_STEP) {
+            List<Long> step = snapshot.subList(from, Math.min(from + WRITE_STEP, snapshot.size()));
+            write((target) -> {
+                for (Long todoId : step) {
+                    target.removeDoc(todoId);
+                }
+            });
+        }
+    }
+
+    // every query token has to match, as a whole term or as a prefix of one
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (tokens.size() > MAX_QUERY_TOKENS) {
+            tokens = tokens.subList(0, MAX_QUERY_TOKENS);
+        }
+
+        lock.readLock().lock();
+        try {
+            return segment.search(tokens, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // live and deleted documents still held, which compaction brings back down to size()
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return segment.docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                if (i - start >= MIN_TOKEN_LENGTH) {
+                    tokens.add(text.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH)).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private void write(Consumer<Segment> write) {
+        lock.writeLock().lock();
+        try {
+            write.accept(segment);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void swapIn(Segment replacement) {
+        lock.writeLock().lock();
+        try {
+            // writes made while loading or copying may or may not be in the new segment; replaying them is
+            // idempotent
+            for (Consumer<Segment> write : pendingWrites) {
+                write.accept(replacement);
+            }
+            segment = replacement;
+            pendingWrites = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void discardPendingWrites() {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static final class Segment {
+
+        private final TreeMap<String, Postings> postingsByTerm = new TreeMap<>();
+        private final LongIntMap ordinalsByTodoId = new LongIntMap();
+        private final BitSet liveDocs = new BitSet();
+        private long[] todoIds = new long[1024];
+        private int docCount;
+        private int liveCount;
+
+        private List<Long> search(List<String> tokens, int limit) {
+            List<Collection<Map.Entry<String, Postings>>> termsByToken = new ArrayList<>(tokens.size());
+            int rarest = 0;
+            long rarestPostings = Long.MAX_VALUE;
+            for (int k = 0; k < tokens.size(); k++) {
+                String token = tokens.get(k);
+                Collection<Map.Entry<String, Postings>> terms = postingsByTerm
+                        .subMap(token, true, token + Character.MAX_VALUE, false).entrySet();
+                long postingsCount = 0;
+                for (Map.Entry<String, Postings> term : terms) {
+                    postingsCount += term.getValue().size;
+                }
+                if (postingsCount == 0) {
+                    return List.of();
+                }
+                termsByToken.add(terms);
+                if (postingsCount < rarestPostings) {
+                    rarest = k;
+                    rarestPostings = postingsCount;
+                }
+            }
+
+            // the rarest token bounds the candidates, the others only narrow them down
+            IntFloatMap candidates = new IntFloatMap((int) Math.min(rarestPostings, liveCount));
+            for (Map.Entry<String, Postings> term : termsByToken.get(rarest)) {
+                float termScore = termScore(term, tokens.get(rarest));
+                Postings postings = term.getValue();
+                for (int i = 0; i < postings.size; i++) {
+                    if (liveDocs.get(postings.docs[i])) {
+                        candidates.addTo(postings.docs[i], termScore * postings.weights[i]);
+                    }
+                }
+            }
+
+            for (int k = 0; k < tokens.size() && candidates.size > 0; k++) {
+                if (k == rarest) {
+                    continue;
+                }
+                IntFloatMap matched = new IntFloatMap(candidates.size);
+                for (Map.Entry<String, Postings> term : termsByToken.get(k)) {
+                    float termScore = termScore(term, tokens.get(k));
+                    Postings postings = term.getValue();
+                    if ((long) candidates.size * LOOKUP_COST_FACTOR < postings.size) {
+                        for (int slot = 0; slot < candidates.capacity(); slot++) {
+                            int doc = candidates.docAt(slot);
+                            int i = doc < 0 ? -1 : Arrays.binarySearch(postings.docs, 0, postings.size, doc);
+                            if (i >= 0) {
+                                matched.addTo(doc, termScore * postings.weights[i]);
+                            }
+                        }
+                    } else {
+                        for (int i = 0; i < postings.size; i++) {
+                            if (candidates.contains(postings.docs[i])) {
+                                matched.addTo(postings.docs[i], termScore * postings.weights[i]);
+                            }
+                        }
+                    }
+                }
+                for (int slot = 0; slot < matched.capacity(); slot++) {
+                    int doc = matched.docAt(slot);
+                    if (doc >= 0) {
+                        matched.addTo(doc, candidates.get(doc));
+                    }
+                }
+                candidates = matched;
+            }
+
+            int[] docs = new int[candidates.size];
+            float[] scores = new float[candidates.size];
+            int hitCount = 0;
+            for (int slot = 0; slot < candidates.capacity(); slot++) {
+                int doc = candidates.docAt(slot);
+                if (doc >= 0) {
+                    docs[hitCount] = doc;
+                    scores[hitCount] = candidates.scoreAt(slot);
+                    hitCount++;
+                }
+            }
+
+            PriorityQueue<Integer> topHits = new PriorityQueue<>(Math.min(limit, hitCount) + 1,
+                    (left, right) -> compareRank(docs, scores, right, left));
+            for (int hit = 0; hit < hitCount; hit++) {
+                topHits.add(hit);
+                if (topHits.size() > limit) {
+                    topHits.poll();
+                }
+            }
+
+            Long[] rankedTodoIds = new Long[topHits.size()];
+            for (int i = rankedTodoIds.length - 1; i >= 0; i--) {
+                rankedTodoIds[i] = todoIds[docs[topHits.poll()]];
+            }
+            return Arrays.asList(rankedTodoIds);
+        }
+
+        private float termScore(Map.Entry<String, Postings> term, String token) {
+            return (float) Math.log(1 + (double) liveCount / term.getValue().size)
+                    * (term.getKey().length() == token.length() ? 1f : PREFIX_MATCH_FACTOR);
+        }
+
+        // higher score first, then the older todo
+        private int compareRank(int[] docs, float[] scores, int leftHit, int rightHit) {
+            int byScore = Float.compare(scores[rightHit], scores[leftHit]);
+            return byScore != 0 ? byScore : Long.compare(todoIds[docs[leftHit]], todoIds[docs[rightHit]]);
+        }
+
+        private void replace(Long todoId, String title, String description) {
+            removeDoc(todoId);
+            add(todoId, title, description);
+        }
+
+        private void add(Long todoId, String title, String description) {
+            if (todoId == null) {
+                return;
+            }
+
+            Map<String, Integer> weights = new HashMap<>();
+            for (String token : tokenize(title)) {
+                weights.merge(token, TITLE_WEIGHT, Integer::sum);
+            }
+            for (String token : tokenize(description)) {
+                weights.merge(token, DESCRIPTION_WEIGHT, Integer::sum);
+            }
+
+            if (docCount == todoIds.length) {
+                todoIds = Arrays.copyOf(todoIds, todoIds.length * 2);
+            }
+            int doc = docCount++;
+            todoIds[doc] = todoId;
+            liveDocs.set(doc);
+            liveCount++;
+            ordinalsByTodoId.put(todoId, doc);
+            for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+                postingsByTerm.computeIfAbsent(weight.getKey(), (term) -> new Postings()).add(doc, weight.getValue());
+            }
+        }
+
+        private void removeDoc(Long todoId) {
+            if (todoId == null) {
+                return;
+            }
+
+            int doc = ordinalsByTodoId.remove(todoId);
+            if (doc >= 0) {
+                liveDocs.clear(doc);
+                liveCount--;
+            }
+        }
+
+        private boolean needsCompaction() {
+            int deadCount = docCount - liveCount;
+            return deadCount >= MIN_DEAD_DOCS_TO_COMPACT && deadCount >= liveCount;
+        }
+
+        // appends the live documents among source ordinals [from, to), recording their new ordinals in compactDocs
+        private void copyLiveDocs(Segment source, int[] compactDocs, int from, int to) {
+            Arrays.fill(compactDocs, from, to, -1);
+            for (int doc = source.liveDocs.nextSetBit(from); doc >= 0 && doc < to;
+                    doc = source.liveDocs.nextSetBit(doc + 1)) {
+                if (docCount == todoIds.length) {
+                    todoIds = Arrays.copyOf(todoIds, todoIds.length * 2);
+                }
+                compactDocs[doc] = docCount;
+                todoIds[docCount] = source.todoIds[doc];
+                ordinalsByTodoId.put(source.todoIds[doc], docCount);
+                liveDocs.set(docCount);
+                docCount++;
+                liveCount++;
+            }
+        }
+
+        // copies the postings of the terms after afterTerm until about maxPostings were read, and returns the last
+        // term copied, or null once every term is. terms added meanwhile only hold documents past compactDocs
+        private String copyPostings(Segment source, int[] compactDocs, String afterTerm, int maxPostings) {
+            NavigableMap<String, Postings> terms = afterTerm == null ? source.postingsByTerm
+                    : source.postingsByTerm.tailMap(afterTerm, false);
+            int read = 0;
+            for (Map.Entry<String, Postings> term : terms.entrySet()) {
+                Postings postings = term.getValue();
+                int kept = 0;
+                for (int i = 0; i < postings.size; i++) {
+                    if (isCopied(postings.docs[i], compactDocs)) {
+                        kept++;
+                    }
+                }
+                if (kept > 0) {
+                    Postings copy = new Postings(kept);
+                    for (int i = 0; i < postings.size; i++) {
+                        if (isCopied(postings.docs[i], compactDocs)) {
+                            copy.add(compactDocs[postings.docs[i]], postings.weights[i]);
+                        }
+                    }
+                    postingsByTerm.put(term.getKey(), copy);
+                }
+                read += postings.size;
+                if (read >= maxPostings) {
+                    return term.getKey();
+                }
+            }
+            return null;
+        }
+
+        private static boolean isCopied(int doc, int[] compactDocs) {
+            return doc < compactDocs.length && compactDocs[doc] >= 0;
+        }
+    }
+
+    private static final class Postings {
+
+        private int[] docs;
+        private int[] weights;
+        private int size;
+
+        private Postings() {
+            this(2);
+        }
+
+        private Postings(int capacity) {
+            docs = new int[capacity];
+            weights = new int[capacity];
+        }
+
+        private void add(int doc, int weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+    }
+
+    /**
+     * Open-addressing map from document ordinal to score, sized once for the
+     * candidates of a single query. Ordinals are stored plus one so 0 marks
+     * an empty slot.
+     */
+    private static final class IntFloatMap {
+
+        private final int[] keys;
+        private final float[] values;
+        private int size;
+
+        private IntFloatMap(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(expectedSize, 1) * 2 - 1) << 1;
+            keys = new int[capacity];
+            values = new float[capacity];
+        }
+
+        private void addTo(int doc, float delta) {
+            int slot = slot(doc, keys.length);
+            while (keys[slot] != 0 && keys[slot] != doc + 1) {
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            if (keys[slot] == 0) {
+                keys[slot] = doc + 1;
+                size++;
+            }
+            values[slot] += delta;
+        }
+
+        private float get(int doc) {
+            int slot = find(doc);
+            return slot < 0 ? 0f : values[slot];
+        }
+
+        private boolean contains(int doc) {
+            return find(doc) >= 0;
+        }
+
+        private int capacity() {
+            return keys.length;
+        }
+
+        private int docAt(int slot) {
+            return keys[slot] - 1;
+        }
+
+        private float scoreAt(int slot) {
+            return values[slot];
+        }
+
+        private int find(int doc) {
+            int slot = slot(doc, keys.length);
+            while (keys[slot] != 0) {
+                if (keys[slot] == doc + 1) {
+                    return slot;
+                }
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            return -1;
+        }
+
+        private static int slot(int doc, int capacity) {
+            int hash = (doc + 1) * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & (capacity - 1);
+        }
+    }
+
+    /**
+     * Open-addressing map from todo id to document ordinal. Todo ids are
+     * positive, so 0 marks an empty slot; removal shifts the following run
+     * back instead of leaving tombstones.
+     */
+    private static final class LongIntMap {
+
+        private long[] keys = new long[16];
+        private int[] values = new int[16];
+        private int size;
+
+        private void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+
+            int slot = slot(key, keys.length);
+            while (keys[slot] != 0) {
+                if (keys[slot] == key) {
+                    values[slot] = value;
+                    return;
+                }
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+        }
+
+        private int remove(long key) {
+            int mask = keys.length - 1;
+            int slot = slot(key, keys.length);
+            while (keys[slot] != key) {
+                if (keys[slot] == 0) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            int value = values[slot];
+            int hole = slot;
+            int next = (slot + 1) & mask;
+            while (keys[next] != 0) {
+                int home = slot(keys[next], keys.length);
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = 0;
+            size--;
+            return value;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity];
+            values = new int[capacity];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = slot(oldKeys[i], capacity);
+                    while (keys[slot] != 0) {
+                        slot = (slot + 1) & (capacity - 1);
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int slot(long key, int capacity) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+        }
+    }
+}
@@ -1,85 +1,356 @@
 package com.sinandemir.todoapp.services;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sinandemir.todoapp.dto.requests.TodoBatchUpdateRequest;
 import com.sinandemir.todoapp.dto.requests.TodoRequest;
+import com.sinandemir.todoapp.dto.responses.CursorPageResponse;
+import com.sinandemir.todoapp.dto.responses.TodoBatchItemResponse;
+import com.sinandemir.todoapp.dto.responses.TodoBatchResponse;
+import com.sinandemir.todoapp.dto.responses.TodoCountsResponse;
 import com.sinandemir.todoapp.dto.responses.TodoResponse;
 import com.sinandemir.todoapp.entities.Todo;
 import com.sinandemir.todoapp.exceptions.ResourceNotFoundException;
+import com.sinandemir.todoapp.exceptions.TodoGlobalException;
+import com.sinandemir.todoapp.mappers.TodoMapper;
 import com.sinandemir.todoapp.repositories.TodoRepository;
+import com.sinandemir.todoapp.repositories.TodoStateView;
 
 @Service
 public class TodoService {
 
+    static final String ID_SORT = "id";
+    static final String TITLE_SORT = "title";
+    private static final Set<String> CURSOR_SORTS = Set.of(ID_SORT, TITLE_SORT);
+
+    static final String CREATED = "created";
+    static final String UPDATED = "updated";
+    static final String DELETED = "deleted";
+    static final String NOT_FOUND = "not_found";
+    static final String INVALID = "invalid";
+
     private TodoRepository todoRepos;
-    private ModelMapper modelMapper;
+    private TodoCounters todoCounters;
+    private TodoSearchIndex todoSearchIndex;
+
+    @Value("${app.todo-cursor-max-page-size:100}")
+    private int maxCursorPageSize;
+    @Value("${app.todo-batch-max-size:10000}")
+    private int maxBatchSize;
+    @Value("${app.todo-search-max-limit:100}")
+    private int maxSearchLimit;
 
-    public TodoService(TodoRepository todoRepos, ModelMapper modelMapper) {
+    public TodoService(TodoRepository todoRepos, TodoCounters todoCounters, TodoSearchIndex todoSearchIndex) {
         this.todoRepos = todoRepos;
-        this.modelMapper = modelMapper;
+        this.todoCounters = todoCounters;
+        this.todoSearchIndex = todoSearchIndex;
     }
 
     public TodoResponse addTodo(TodoRequest todoRequest) {
-        Todo todo = modelMapper.map(todoRequest, Todo.class);
+        Todo todo = TodoMapper.toEntity(todoRequest);
         Todo savedTodo = todoRepos.save(todo);
-        TodoResponse todoResponse = modelMapper.map(savedTodo, TodoResponse.class);
+        todoCounters.onAdded(savedTodo.isCompleted());
+        todoSearchIndex.index(savedTodo.getId(), savedTodo.getTitle(), savedTodo.getDescription());
+        TodoResponse todoResponse = TodoMapper.toResponse(savedTodo);
         return todoResponse;
     }
 
+    @Transactional
+    public TodoBatchResponse addTodos(List<TodoRequest> todoRequests) {
+        checkBatchSize(todoRequests.size());
+
+        List<TodoBatchItemResponse> results = new ArrayList<>(todoRequests.size());
+        List<TodoBatchItemResponse> createdResults = new ArrayList<>();
+        List<Todo> todos = new ArrayList<>();
+        for (int i = 0; i < todoRequests.size(); i++) {
+            TodoRequest todoRequest = todoRequests.get(i);
+            String invalidReason = todoRequest == null ? TodoValidator.REQUIRED
+                    : TodoValidator.invalidReason(todoRequest.getTitle(), todoRequest.getDescription());
+            if (invalidReason != null) {
+                results.add(TodoValidator.invalidItem(i, null, invalidReason));
+                continue;
+            }
+
+            TodoBatchItemResponse result = new TodoBatchItemResponse(i, null, CREATED, null);
+            results.add(result);
+            createdResults.add(result);
+            todos.add(TodoMapper.toEntity(todoRequest));
+        }
+
+        List<Todo> savedTodos = todoRepos.saveAll(todos);
+        for (int i = 0; i < savedTodos.size(); i++) {
+            createdResults.get(i).setId(savedTodos.get(i).getId());
+        }
+
+        long completedCount = savedTodos.stream().filter(Todo::isCompleted).count();
+        afterCommit(() -> {
+            todoCounters.onBatchChanged(savedTodos.size(), completedCount);
+            todoSearchIndex.indexAll(savedTodos);
+        });
+        return batchResponse(results);
+    }
+
+    @Transactional
+    public TodoBatchResponse updateTodos(List<TodoBatchUpdateRequest> todoRequests) {
+        checkBatchSize(todoRequests.size());
+
+        List<Long> todoIds = todoRequests.stream().filter(Objects::nonNull).map(TodoBatchUpdateRequest::getId)
+                .filter(Objects::nonNull).distinct().toList();
+        // locked, so the completed flags the counter delta starts from cannot change under this transaction
+        Map<Long, Todo> todosById = new HashMap<>();
+        todoRepos.findAllByIdForUpdate(todoIds).forEach((todo) -> todosById.put(todo.getId(), todo));
+
+        List<TodoBatchItemResponse> results = new ArrayList<>(todoRequests.size());
+        List<Todo> updatedTodos = new ArrayList<>();
+        long completedDelta = 0;
+        for (int i = 0; i < todoRequests.size(); i++) {
+            TodoBatchUpdateRequest todoRequest = todoRequests.get(i);
+            String invalidReason = todoRequest == null || todoRequest.getId() == null ? TodoValidator.REQUIRED
+                    : TodoValidator.invalidReason(todoRequest.getTitle(), todoRequest.getDescription());
+            if (invalidReason != null) {
+                results.add(TodoValidator.invalidItem(i, todoRequest == null ? null : todoRequest.getId(),
+                        invalidReason));
+                continue;
+            }
+
+            Todo todo = todosById.get(todoRequest.getId());
+            if (todo == null) {
+                results.add(notFoundItem(i, todoRequest.getId()));
+                continue;
+            }
+
+            completedDelta += (todoRequest.isCompleted() ? 1 : 0) - (todo.isCompleted() ? 1 : 0);
+            todo.setTitle(todoRequest.getTitle());
+            todo.setDescription(todoRequest.getDescription());
+            todo.setCompleted(todoRequest.isCompleted());
+            updatedTodos.add(todo);
+            results.add(new TodoBatchItemResponse(i, todo.getId(), UPDATED, null));
+        }
+
+        long completedChange = completedDelta;
+        afterCommit(() -> {
+            todoCounters.onBatchChanged(0, completedChange);
+            todoSearchIndex.indexAll(updatedTodos);
+        });
+        return batchResponse(results);
+    }
+
+    @Transactional
+    public TodoBatchResponse deleteTodos(List<Long> todoIds) {
+        checkBatchSize(todoIds.size());
+
+        Map<Long, Todo> todosById = new HashMap<>();
+        todoRepos.findAllByIdForUpdate(todoIds.stream().filter(Objects::nonNull).distinct().toList())
+                .forEach((todo) -> todosById.put(todo.getId(), todo));
+        todoRepos.deleteAllByIdInBatch(todosById.keySet());
+
+        List<TodoBatchItemResponse> results = new ArrayList<>(todoIds.size());
+        List<Todo> deletedTodos = new ArrayList<>();
+        for (int i = 0; i < todoIds.size(); i++) {
+            Long todoId = todoIds.get(i);
+            if (todoId == null) {
+                results.add(TodoValidator.invalidItem(i, null));
+                continue;
+            }
+
+            Todo todo = todosById.remove(todoId);
+            if (todo == null) {
+                results.add(notFoundItem(i, todoId));
+                continue;
+            }
+
+            deletedTodos.add(todo);
+            results.add(new TodoBatchItemResponse(i, todoId, DELETED, null));
+        }
+
+        long completedCount = deletedTodos.stream().filter(Todo::isCompleted).count();
+        List<Long> deletedTodoIds = deletedTodos.stream().map(Todo::getId).toList();
+        afterCommit(() -> {
+            todoCounters.onBatchChanged(-deletedTodos.size(), -completedCount);
+            todoSearchIndex.removeAll(deletedTodoIds);
+        });
+        return batchResponse(results);
+    }
+
+    @Transactional(readOnly = true)
     public TodoResponse getTodo(Long todoId) {
-        Todo todo = todoRepos.findById(todoId)
+        return todoRepos.findResponseById(todoId)
                 .orElseThrow(() -> new ResourceNotFoundException("todo not found with id -> " + todoId));
-
-        TodoResponse mappedTodo = modelMapper.map(todo, TodoResponse.class);
-        return mappedTodo;
     }
 
+    @Transactional(readOnly = true)
     public List<TodoResponse> getAllTodos() {
-        List<Todo> todos = todoRepos.findAll();
-        List<TodoResponse> mappedTodos = todos.stream().map((todo) -> modelMapper.map(todo, TodoResponse.class))
-                .collect(Collectors.toList());
-        return mappedTodos;
+        return todoRepos.findAllResponses();
     }
 
-    public Page<TodoResponse> getAllTodosWithPagination(Pageable pageable) {
-        Page<Todo> todos = todoRepos.findAll(pageable);
-        Page<TodoResponse> mappedTodo = todos.map(todo -> modelMapper.map(todo, TodoResponse.class));
-        return mappedTodo;
+    @Transactional(readOnly = true)
+    public Page<TodoResponse> getAllTodosWithPagination(Pageable pageable, Boolean completed) {
+        if (completed == null) {
+            List<TodoResponse> todos = todoRepos.findResponsesBy(pageable);
+            return new PageImpl<>(todos, pageable, todoCounters.getTotal());
+        }
+
+        // id order lets the partial index on the completed flag serve the page
+        Pageable filteredPageable = pageable.isPaged() && pageable.getSort().isUnsorted()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(ID_SORT))
+                : pageable;
+        List<TodoResponse> todos = todoRepos.findResponsesByCompleted(completed, filteredPageable);
+        long completedCount = todoCounters.getCompleted();
+        long total = completed ? completedCount : todoCounters.getTotal() - completedCount;
+        return new PageImpl<>(todos, filteredPageable, total);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<TodoResponse> getAllTodosWithSlice(Pageable pageable) {
+        return todoRepos.findResponseSliceBy(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TodoResponse> searchTodos(String query, int limit) {
+        List<Long> todoIds = todoSearchIndex.search(query, Math.max(1, Math.min(limit, maxSearchLimit)));
+        if (todoIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, TodoResponse> todosById = new HashMap<>();
+        todoRepos.findResponsesByIdIn(todoIds).forEach((todo) -> todosById.put(todo.getId(), todo));
+        List<TodoResponse> todos = new ArrayList<>(todoIds.size());
+        for (Long todoId : todoIds) {
+            TodoResponse todo = todosById.get(todoId);
+            if (todo != null) {
+                todos.add(todo);
+            }
+        }
+        return todos;
+    }
+
+    public TodoCountsResponse getTodoCounts() {
+        return todoCounters.snapshot();
     }
 
+    public CursorPageResponse<TodoResponse> getTodosWithCursor(String after, int size, String sort,
+            String direction) {
+        if (!CURSOR_SORTS.contains(sort)) {
+            throw new TodoGlobalException(HttpStatus.BAD_REQUEST, "sort is not supported -> " + sort);
+        }
+        if (!"asc".equalsIgnoreCase(direction) && !"desc".equalsIgnoreCase(direction)) {
+            throw new TodoGlobalException(HttpStatus.BAD_REQUEST, "direction is not supported -> " + direction);
+        }
+
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        int pageSize = Math.max(1, Math.min(size, maxCursorPageSize));
+        TodoCursor cursor = after == null || after.isEmpty() ? null : TodoCursor.decode(after, sort, descending);
+
+        List<Todo> todos = findTodosAfter(cursor, sort, descending, pageSize + 1);
+        boolean hasNext = todos.size() > pageSize;
+        if (hasNext) {
+            todos = todos.subList(0, pageSize);
+        }
+
+        String nextCursor = hasNext ? TodoCursor.after(todos.get(todos.size() - 1), sort, descending).encode() : null;
+        List<TodoResponse> mappedTodos = TodoMapper.toResponses(todos);
+        return new CursorPageResponse<TodoResponse>(mappedTodos, mappedTodos.size(), hasNext, nextCursor);
+    }
+
+    // locks the row, so a concurrent changeCompletedStatus cannot slip between the read of wasCompleted and the write
+    @Transactional
     public TodoResponse updateTodo(TodoRequest todoRequest, Long todoId) {
-        Todo todo = todoRepos.findById(todoId)
+        Todo todo = todoRepos.findByIdForUpdate(todoId)
                 .orElseThrow(() -> new ResourceNotFoundException("todo not found with id -> " + todoId));
+        boolean wasCompleted = todo.isCompleted();
         todo.setTitle(todoRequest.getTitle());
         todo.setDescription(todoRequest.getDescription());
         todo.setCompleted(todoRequest.isCompleted());
 
         Todo savedTodo = todoRepos.save(todo);
+        afterCommit(() -> {
+            todoCounters.onCompletedChanged(wasCompleted, savedTodo.isCompleted());
+            todoSearchIndex.index(savedTodo.getId(), savedTodo.getTitle(), savedTodo.getDescription());
+        });
 
-        TodoResponse mappedTodo = modelMapper.map(savedTodo, TodoResponse.class);
+        TodoResponse mappedTodo = TodoMapper.toResponse(savedTodo);
         return mappedTodo;
     }
 
     public void deleteTodo(Long todoId) {
-        Todo todo = todoRepos.findById(todoId)
+        boolean todoCompleted = todoRepos.deleteByIdReturningCompleted(todoId)
                 .orElseThrow(() -> new ResourceNotFoundException("todo not found with id -> " + todoId));
 
-        todoRepos.deleteById(todo.getId());
+        todoCounters.onDeleted(todoCompleted);
+        todoSearchIndex.remove(todoId);
     }
 
     public TodoResponse changeCompletedStatus(Long todoId) {
-        Todo todo = todoRepos.findById(todoId)
+        TodoStateView todo = todoRepos.toggleCompleted(todoId)
                 .orElseThrow(() -> new ResourceNotFoundException("todo not found with id -> " + todoId));
-        todo.setCompleted(!todo.isCompleted());
+        todoCounters.onCompletedChanged(!todo.getCompleted(), todo.getCompleted());
 
-        Todo savedTodo = todoRepos.save(todo);
-        TodoResponse mappedTodo = modelMapper.map(savedTodo, TodoResponse.class);
+        return new TodoResponse(todo.getId(), todo.getTitle(), todo.getDescription(), todo.getCompleted());
+    }
 
-        return mappedTodo;
+    private List<Todo> findTodosAfter(TodoCursor cursor, String sort, boolean descending, int limit) {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        if (cursor == null) {
+            return todoRepos.findAllBy(PageRequest.of(0, limit, TITLE_SORT.equals(sort)
+                    ? Sort.by(direction, TITLE_SORT, ID_SORT) : Sort.by(direction, ID_SORT)));
+        }
+
+        if (TITLE_SORT.equals(sort)) {
+            return descending ? todoRepos.findByTitleAndIdBefore(cursor.getTitle(), cursor.getId(), limit)
+                    : todoRepos.findByTitleAndIdAfter(cursor.getTitle(), cursor.getId(), limit);
+        }
+
+        Pageable firstPage = PageRequest.of(0, limit, Sort.by(direction, ID_SORT));
+        return descending ? todoRepos.findByIdLessThan(cursor.getId(), firstPage)
+                : todoRepos.findByIdGreaterThan(cursor.getId(), firstPage);
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > maxBatchSize) {
+            throw new TodoGlobalException(HttpStatus.BAD_REQUEST, "batch size exceeds the limit -> " + maxBatchSize);
+        }
+    }
+
+    private TodoBatchItemResponse notFoundItem(int index, Long todoId) {
+        return new TodoBatchItemResponse(index, todoId, NOT_FOUND, "todo not found with id -> " + todoId);
+    }
+
+    private TodoBatchResponse batchResponse(List<TodoBatchItemResponse> results) {
+        int failed = (int) results.stream()
+                .filter((result) -> INVALID.equals(result.getStatus()) || NOT_FOUND.equals(result.getStatus()))
+                .count();
+        return new TodoBatchResponse(results.size() - failed, failed, results);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
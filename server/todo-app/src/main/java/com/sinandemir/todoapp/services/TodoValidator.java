@@ -0,0 +1,33 @@
+package com.sinandemir.todoapp.services;
+
+import com.sinandemir.todoapp.dto.responses.TodoBatchItemResponse;
+
+final class TodoValidator {
+
+    // the title and description columns are varchar(255)
+    static final int MAX_LENGTH = 255;
+    static final String REQUIRED = "title and description are required.";
+    static final String TOO_LONG = "title and description must be at most " + MAX_LENGTH + " characters.";
+
+    private TodoValidator() {
+    }
+
+    // null when the todo can be stored as it is
+    static String invalidReason(String title, String description) {
+        if (title == null || description == null) {
+            return REQUIRED;
+        }
+        if (title.length() > MAX_LENGTH || description.length() > MAX_LENGTH) {
+            return TOO_LONG;
+        }
+        return null;
+    }
+
+    static TodoBatchItemResponse invalidItem(int index, Long todoId) {
+        return invalidItem(index, todoId, REQUIRED);
+    }
+
+    static TodoBatchItemResponse invalidItem(int index, Long todoId, String message) {
+        return new TodoBatchItemResponse(index, todoId, TodoService.INVALID, message);
+    }
+}
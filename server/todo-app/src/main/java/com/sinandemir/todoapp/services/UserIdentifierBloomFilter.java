@@ -0,0 +1,124 @@
+package com.sinandemir.todoapp.services;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.sinandemir.todoapp.entities.User;
+import com.sinandemir.todoapp.repositories.UserIdentifierView;
+
+@Component
+public class UserIdentifierBloomFilter {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final boolean enabled;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final UserService userService;
+
+    private volatile boolean ready;
+
+    public UserIdentifierBloomFilter(UserService userService,
+            @Value("${app.registration-bloom-filter-enabled:true}") boolean enabled,
+            @Value("${app.registration-bloom-filter-expected-insertions:1000000}") long expectedInsertions,
+            @Value("${app.registration-bloom-filter-false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userService = userService;
+        this.enabled = enabled;
+
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = enabled ? (int) Math.max(1, (optimalBits + 63) / 64) : 1;
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    public boolean mightContainAny(String... identifiers) {
+        if (!enabled || !ready) {
+            return true;
+        }
+        for (String identifier : identifiers) {
+            if (identifier != null && mightContain(identifier)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean mightContain(String identifier) {
+        long hash = hash64(identifier);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void put(String identifier) {
+        if (identifier == null) {
+            return;
+        }
+        long hash = hash64(identifier);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+
+        Long lastId = 0L;
+        List<UserIdentifierView> batch = userService.findIdentifiersAfter(lastId, PageRequest.ofSize(LOAD_BATCH_SIZE));
+        while (!batch.isEmpty()) {
+            for (UserIdentifierView identifiers : batch) {
+                put(identifiers.getUsername());
+                put(identifiers.getEmail());
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+            batch = userService.findIdentifiersAfter(lastId, PageRequest.ofSize(LOAD_BATCH_SIZE));
+        }
+        ready = true;
+    }
+
+    @EventListener
+    public void onUserSaved(UserSavedEvent event) {
+        User user = event.getUser();
+        put(user.getUsername());
+        put(user.getEmail());
+    }
+}
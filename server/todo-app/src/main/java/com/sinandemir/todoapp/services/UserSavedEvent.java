@@ -0,0 +1,12 @@
+package com.sinandemir.todoapp.services;
+
+import com.sinandemir.todoapp.entities.User;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserSavedEvent {
+    private User user;
+}
@@ -1,38 +1,119 @@
 package com.sinandemir.todoapp.services;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.sinandemir.todoapp.entities.User;
+import com.sinandemir.todoapp.repositories.LoginIdentifierRepository;
+import com.sinandemir.todoapp.repositories.UserIdentifierView;
 import com.sinandemir.todoapp.repositories.UserRepository;
+import com.sinandemir.todoapp.repositories.UserRoleView;
+import com.sinandemir.todoapp.repositories.UserTokenVersionView;
 
 @Service
 public class UserService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserService.class);
+
     private UserRepository userRepos;
+    private LoginIdentifierRepository loginIdentifierRepos;
+    private ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserRepository userRepos) {
+    public UserService(UserRepository userRepos, LoginIdentifierRepository loginIdentifierRepos,
+            ApplicationEventPublisher eventPublisher) {
         this.userRepos = userRepos;
+        this.loginIdentifierRepos = loginIdentifierRepos;
+        this.eventPublisher = eventPublisher;
     }
 
-    public Boolean existsByEmail(String email) {
-        return userRepos.existsByEmail(email);
-    }
-
-    public Boolean existsByUsername(String username) {
-        return userRepos.existsByUsername(username);
-    }
-
+    @Transactional
     public User save(User user){
-        return userRepos.save(user);
+        Set<String> storedIdentifiers = user.getId() == null ? Set.of()
+                : userRepos.findStoredIdentifiersById(user.getId())
+                        .map((stored) -> identifiersOf(stored.getUsername(), stored.getEmail())).orElse(Set.of());
+        User savedUser = userRepos.save(user);
+        syncLoginIdentifiers(savedUser, storedIdentifiers);
+        eventPublisher.publishEvent(new UserSavedEvent(savedUser));
+        return savedUser;
     }
 
     public Optional<User> findByUsernameOrEmail(String username, String email){
         return userRepos.findByUsernameOrEmail(username, email);
     }
 
+    public Optional<User> findByLoginIdentifier(String usernameOrEmail){
+        Optional<User> user = userRepos.findByLoginIdentifier(normalizeIdentifier(usernameOrEmail));
+        if (user.isPresent()) {
+            return user;
+        }
+        // unknown or ambiguous after lower-casing: fall back to the exact match
+        return userRepos.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail);
+    }
+
     public Optional<User> findById(Long userId){
         return userRepos.findById(userId);
     }
+
+    public List<UserRoleView> findRoleNamesByUserIds(Collection<Long> userIds){
+        return userRepos.findRoleNamesByUserIds(userIds);
+    }
+
+    public List<UserIdentifierView> findIdentifierConflicts(String username, String email){
+        return userRepos.findIdentifierConflicts(username, email);
+    }
+
+    public List<UserIdentifierView> findIdentifiersAfter(Long afterId, Pageable pageable){
+        return userRepos.findIdentifiersAfter(afterId, pageable);
+    }
+
+    public List<UserTokenVersionView> findNonZeroTokenVersions(){
+        return userRepos.findNonZeroTokenVersions();
+    }
+
+    public Optional<Integer> incrementTokenVersion(Long userId){
+        return userRepos.incrementTokenVersion(userId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillLoginIdentifiers() {
+        int insertedCount = loginIdentifierRepos.backfill();
+        LOGGER.info("backfilled {} login identifiers", insertedCount);
+    }
+
+    private void syncLoginIdentifiers(User user, Set<String> storedIdentifiers) {
+        Set<String> identifiers = identifiersOf(user.getUsername(), user.getEmail());
+        loginIdentifierRepos.deleteStale(user.getId(), identifiers);
+        for (String identifier : identifiers) {
+            loginIdentifierRepos.upsert(identifier, user.getId());
+        }
+
+        // values this user gave up may have been shared with another user and marked ambiguous
+        Set<String> droppedIdentifiers = new HashSet<>(storedIdentifiers);
+        droppedIdentifiers.removeAll(identifiers);
+        if (!droppedIdentifiers.isEmpty()) {
+            loginIdentifierRepos.resolveAmbiguous(droppedIdentifiers);
+        }
+    }
+
+    private Set<String> identifiersOf(String username, String email) {
+        return new HashSet<>(List.of(normalizeIdentifier(username), normalizeIdentifier(email)));
+    }
+
+    private String normalizeIdentifier(String identifier) {
+        return identifier.toLowerCase(Locale.ROOT);
+    }
 }
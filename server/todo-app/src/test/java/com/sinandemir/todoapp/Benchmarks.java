@@ -0,0 +1,78 @@
+package com.sinandemir.todoapp;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Timing harness for the tests tagged "benchmark", which only run with
+ * {@code mvn test -Pbenchmark}. An operation runs in warm-up rounds first,
+ * then every measured round is timed on its own and the per-operation
+ * percentiles of those rounds are printed and returned. Results are kept
+ * alive through a counter so the JIT cannot drop the measured calls.
+ */
+public final class Benchmarks {
+
+    private static long sink;
+
+    private Benchmarks() {
+    }
+
+    public static Result measure(String name, int warmupRounds, int rounds, int operationsPerRound,
+            IntFunction<?> operation) {
+        int next = 0;
+        for (int round = 0; round < warmupRounds; round++) {
+            next = runRound(operation, next, operationsPerRound);
+        }
+
+        double[] nanosPerOperation = new double[rounds];
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            next = runRound(operation, next, operationsPerRound);
+            nanosPerOperation[round] = (double) (System.nanoTime() - start) / operationsPerRound;
+        }
+
+        Arrays.sort(nanosPerOperation);
+        Result result = new Result(name, percentile(nanosPerOperation, 0.5), percentile(nanosPerOperation, 0.99));
+        System.out.printf("benchmark %-60s p50 %,14.1f ns/op   p99 %,14.1f ns/op%n", result.getName(), result.getP50Nanos(),
+                result.getP99Nanos());
+        return result;
+    }
+
+    private static int runRound(IntFunction<?> operation, int first, int operations) {
+        for (int i = first; i < first + operations; i++) {
+            if (operation.apply(i) != null) {
+                sink++;
+            }
+        }
+        return first + operations;
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    public static final class Result {
+
+        private final String name;
+        private final double p50Nanos;
+        private final double p99Nanos;
+
+        private Result(String name, double p50Nanos, double p99Nanos) {
+            this.name = name;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public double getP99Nanos() {
+            return p99Nanos;
+        }
+    }
+}
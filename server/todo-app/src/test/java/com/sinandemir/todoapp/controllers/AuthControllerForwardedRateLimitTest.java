@@ -0,0 +1,49 @@
+package com.sinandemir.todoapp.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+// mock mvc bypasses tomcat, so the framework strategy stands in for the native RemoteIpValve here
+@SpringBootTest(properties = "server.forward-headers-strategy=framework")
+@AutoConfigureMockMvc
+public class AuthControllerForwardedRateLimitTest {
+
+    private static final int CAPACITY = 10;
+    private static final String PROXY_ADDRESS = "10.40.0.1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Test clients behind one proxy get their own bucket from X-Forwarded-For")
+    void should_limit_auth_requests_per_forwarded_client() throws Exception {
+        for (int i = 0; i < CAPACITY; i++) {
+            mockMvc.perform(login("forwarded-user-" + i, "203.0.113.1"));
+        }
+
+        mockMvc.perform(login("forwarded-user-last", "203.0.113.1"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(login("forwarded-user-other", "203.0.113.2"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private MockHttpServletRequestBuilder login(String usernameOrEmail, String clientAddress) {
+        return post("/api/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Forwarded-For", clientAddress)
+                .content("{\"usernameOrEmail\":\"" + usernameOrEmail + "\",\"password\":\"wrong-password\"}")
+                .with((request) -> {
+                    request.setRemoteAddr(PROXY_ADDRESS);
+                    return request;
+                });
+    }
+}
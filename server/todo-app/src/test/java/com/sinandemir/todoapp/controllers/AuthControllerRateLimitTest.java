@@ -0,0 +1,61 @@
+package com.sinandemir.todoapp.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AuthControllerRateLimitTest {
+
+    private static final int CAPACITY = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Test the auth filter answers 429 with Retry-After once a client address is exhausted")
+    void should_limit_auth_requests_per_client_address() throws Exception {
+        for (int i = 0; i < CAPACITY; i++) {
+            mockMvc.perform(login("filter-user-" + i, "10.20.0.1"));
+        }
+
+        mockMvc.perform(login("filter-user-last", "10.20.0.1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "6"));
+    }
+
+    @Test
+    @DisplayName("Test login answers 429 with Retry-After once an identifier is exhausted")
+    void should_limit_login_attempts_per_identifier() throws Exception {
+        for (int i = 0; i < CAPACITY; i++) {
+            mockMvc.perform(login("Limited-User", "10.30.0." + i));
+        }
+
+        mockMvc.perform(login("limited-user", "10.30.1.1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "6"))
+                .andExpect(jsonPath("$.message").value("too many requests, please try again later."));
+    }
+
+    private MockHttpServletRequestBuilder login(String usernameOrEmail, String remoteAddress) {
+        return post("/api/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"usernameOrEmail\":\"" + usernameOrEmail + "\",\"password\":\"wrong-password\"}")
+                .with((request) -> {
+                    request.setRemoteAddr(remoteAddress);
+                    return request;
+                });
+    }
+}
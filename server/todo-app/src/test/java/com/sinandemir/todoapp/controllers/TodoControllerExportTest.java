@@ -0,0 +1,82 @@
+package com.sinandemir.todoapp.controllers;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.sinandemir.todoapp.dto.requests.TodoRequest;
+import com.sinandemir.todoapp.dto.responses.TodoResponse;
+import com.sinandemir.todoapp.security.JwtTokenProvider;
+import com.sinandemir.todoapp.services.TodoService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TodoControllerExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private TodoResponse savedTodo;
+
+    @BeforeEach
+    void setup() {
+        savedTodo = todoService.addTodo(new TodoRequest("controller export", "controller export", false));
+    }
+
+    @AfterEach
+    void tearDown() {
+        todoService.deleteTodo(savedTodo.getId());
+    }
+
+    @Test
+    @DisplayName("Test export streams through the async dispatch of an authenticated request")
+    void should_stream_export_through_async_dispatch() throws Exception {
+        String accessToken = jwtTokenProvider.generateToken("export-user", 1L, List.of("ROLE_USER"));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/todos/export").param("format", "csv")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(3600000L, result.getRequest().getAsyncContext().getTimeout());
+        String csv = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv"))
+                .andExpect(content().string(startsWith("id,title,description,completed\n")))
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(csv.contains(savedTodo.getId() + ",controller export,controller export,false\n"));
+    }
+
+    @Test
+    @DisplayName("Test export rejects anonymous requests before streaming")
+    void should_reject_anonymous_export() throws Exception {
+        mockMvc.perform(get("/api/v1/todos/export").param("format", "csv"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,74 @@
+package com.sinandemir.todoapp.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sinandemir.todoapp.entities.User;
+import com.sinandemir.todoapp.services.UserService;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@Transactional
+public class LoginIdentifierRepositoryTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private LoginIdentifierRepository loginIdentifierRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Test an identifier two users shared resolves to the one left after the other renames")
+    void should_resolve_ambiguous_identifier_after_rename() {
+        User first = userService.save(new User(null, "shared one", "Shared-Name", "shared-one@fake-email.com",
+                "password", Set.of(), 0));
+        User second = userService.save(new User(null, "shared two", "shared-name", "shared-two@fake-email.com",
+                "password", Set.of(), 0));
+        entityManager.flush();
+        entityManager.clear();
+        assertNull(loginIdentifierRepository.findById("shared-name").orElseThrow().getUser());
+
+        User renamed = userService.findById(first.getId()).orElseThrow();
+        renamed.setUsername("renamed-name");
+        userService.save(renamed);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(second.getId(), loginIdentifierRepository.findById("shared-name").orElseThrow().getUser().getId());
+        assertEquals(first.getId(), loginIdentifierRepository.findById("renamed-name").orElseThrow().getUser().getId());
+    }
+
+    @Test
+    @DisplayName("Test an ambiguous identifier nobody holds anymore is removed")
+    void should_delete_ambiguous_identifier_nobody_holds() {
+        User first = userService.save(new User(null, "gone one", "Gone-Name", "gone-one@fake-email.com",
+                "password", Set.of(), 0));
+        User second = userService.save(new User(null, "gone two", "gone-name", "gone-two@fake-email.com",
+                "password", Set.of(), 0));
+        entityManager.flush();
+        entityManager.clear();
+
+        for (Long userId : new Long[] { first.getId(), second.getId() }) {
+            User renamed = userService.findById(userId).orElseThrow();
+            renamed.setUsername("gone-name-" + userId);
+            userService.save(renamed);
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        assertFalse(loginIdentifierRepository.findById("gone-name").isPresent());
+    }
+}
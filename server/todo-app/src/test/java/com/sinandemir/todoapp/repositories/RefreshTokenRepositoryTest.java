@@ -0,0 +1,55 @@
+package com.sinandemir.todoapp.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sinandemir.todoapp.entities.RefreshToken;
+import com.sinandemir.todoapp.entities.User;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@Transactional
+public class RefreshTokenRepositoryTest {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Test the purge delete keeps a row a login revived after it was selected")
+    void should_keep_refresh_token_revived_between_select_and_delete() {
+        Instant now = Instant.now();
+        User user = userRepository.save(new User(null, "purge race", "purge-race-user",
+                "purge-race-user@fake-email.com", "password", Set.of(), 0));
+        RefreshToken expired = refreshTokenRepository.save(new RefreshToken(null, user, "expired-refresh-token",
+                new byte[] { 1 }, now.minusSeconds(60)));
+        entityManager.flush();
+
+        List<Long> expiredIds = refreshTokenRepository.findExpiredIdsAfter(expired.getId() - 1, now,
+                PageRequest.ofSize(10));
+        refreshTokenRepository.upsertRefreshToken(user.getId(), "revived-refresh-token", new byte[] { 2 },
+                now.plusSeconds(3600), now);
+
+        assertEquals(List.of(expired.getId()), expiredIds);
+        assertEquals(0, refreshTokenRepository.deleteExpiredByIdIn(expiredIds, now));
+        entityManager.clear();
+        assertEquals("revived-refresh-token",
+                refreshTokenRepository.findById(expired.getId()).orElseThrow().getRefreshToken());
+    }
+}
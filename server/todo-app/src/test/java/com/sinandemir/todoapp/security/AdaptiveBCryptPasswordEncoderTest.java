@@ -0,0 +1,60 @@
+package com.sinandemir.todoapp.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class AdaptiveBCryptPasswordEncoderTest {
+
+    @Test
+    @DisplayName("Test calibrate raises the strength while a doubled hash still fits the budget")
+    void should_stop_calibration_at_time_budget() {
+        List<Integer> measured = new ArrayList<>();
+
+        // 2^strength microseconds per hash: strength 15 takes 32.8 ms, doubling it would exceed 50 ms
+        AdaptiveBCryptPasswordEncoder cut = AdaptiveBCryptPasswordEncoder.calibrate(50, 10, (strength) -> {
+            measured.add(strength);
+            return (1L << strength) * 1_000L;
+        });
+
+        assertEquals(15, cut.getStrength());
+        assertEquals(List.of(4, 10, 11, 12, 13, 14, 15), measured);
+    }
+
+    @Test
+    @DisplayName("Test calibrate never goes past bcrypt's maximum strength")
+    void should_stop_calibration_at_max_strength() {
+        AdaptiveBCryptPasswordEncoder cut = AdaptiveBCryptPasswordEncoder.calibrate(50, 10, (strength) -> 0L);
+
+        assertEquals(31, cut.getStrength());
+    }
+
+    @Test
+    @DisplayName("Test calibrate keeps the minimum strength when it already exceeds the budget")
+    void should_keep_min_strength_over_budget() {
+        AdaptiveBCryptPasswordEncoder cut = AdaptiveBCryptPasswordEncoder.calibrate(50, 12,
+                (strength) -> 100_000_000L);
+
+        assertEquals(12, cut.getStrength());
+    }
+
+    @Test
+    @DisplayName("Test upgradeEncoding asks for a rehash only when a bcrypt hash has a lower cost")
+    void should_upgrade_only_lower_cost_hashes() {
+        AdaptiveBCryptPasswordEncoder cut = new AdaptiveBCryptPasswordEncoder(5);
+
+        assertTrue(cut.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(cut.upgradeEncoding(cut.encode("secret")));
+        assertFalse(cut.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(cut.upgradeEncoding("$2a$05$too-short"));
+        assertFalse(cut.upgradeEncoding("{noop}secret"));
+        assertFalse(cut.upgradeEncoding(null));
+    }
+}
@@ -0,0 +1,60 @@
+package com.sinandemir.todoapp.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.sinandemir.todoapp.Benchmarks;
+
+// mvn test -Pbenchmark -Dtest=AuthRateLimiterBenchmark
+@Tag("benchmark")
+public class AuthRateLimiterBenchmark {
+
+    private static final int HOT_KEYS = 1024;
+    private static final int OPERATIONS_PER_ROUND = 100_000;
+    private static final int MAX_BUCKETS = 10_000;
+
+    @Test
+    @DisplayName("Benchmark tryAcquire under the limit against a bare map lookup")
+    void tryAcquire_under_limit() {
+        String[] keys = keys(HOT_KEYS, "ip:10.0.0.");
+        ConcurrentHashMap<String, Object> map = new ConcurrentHashMap<>();
+        for (String key : keys) {
+            map.put(key, key);
+        }
+        // refills far faster than one thread can drain it, so every call takes the under-limit path
+        AuthRateLimiter limiter = new AuthRateLimiter(1_000_000, Integer.MAX_VALUE, MAX_BUCKETS, 600_000);
+
+        Benchmarks.measure("map get, " + HOT_KEYS + " keys (baseline)", 20, 50, OPERATIONS_PER_ROUND,
+                (i) -> map.get(keys[i & (HOT_KEYS - 1)]));
+        Benchmarks.measure("tryAcquire under the limit, " + HOT_KEYS + " keys", 20, 50, OPERATIONS_PER_ROUND,
+                (i) -> limiter.tryAcquire(keys[i & (HOT_KEYS - 1)]) ? Boolean.TRUE : null);
+
+        assertEquals(HOT_KEYS, limiter.size());
+    }
+
+    @Test
+    @DisplayName("Benchmark tryAcquire with a new key on every call and the bucket map full")
+    void tryAcquire_key_churn() {
+        int rounds = 70;
+        String[] keys = keys(rounds * OPERATIONS_PER_ROUND, "id:user");
+        AuthRateLimiter limiter = new AuthRateLimiter(10, 10, MAX_BUCKETS, 600_000);
+
+        Benchmarks.measure("tryAcquire with key churn, " + MAX_BUCKETS + " buckets", 20, rounds - 20,
+                OPERATIONS_PER_ROUND, (i) -> limiter.tryAcquire(keys[i]) ? Boolean.TRUE : null);
+
+        assertEquals(MAX_BUCKETS, limiter.size());
+    }
+
+    private static String[] keys(int count, String prefix) {
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = prefix + i;
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,114 @@
+package com.sinandemir.todoapp.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sinandemir.todoapp.exceptions.TooManyRequestsException;
+
+public class AuthRateLimiterTest {
+
+    private static final long SECOND_NANOS = 1_000_000_000L;
+
+    @Test
+    @DisplayName("Test tryAcquire exhausts the bucket and refills it over time")
+    void should_exhaust_and_refill_bucket() {
+        AuthRateLimiter cut = new AuthRateLimiter(3, 60, 100, 600000);
+        long now = 0;
+
+        assertTrue(cut.tryAcquire("ip:1", now));
+        assertTrue(cut.tryAcquire("ip:1", now));
+        assertTrue(cut.tryAcquire("ip:1", now));
+        assertFalse(cut.tryAcquire("ip:1", now));
+
+        assertFalse(cut.tryAcquire("ip:1", now + SECOND_NANOS / 2));
+        assertTrue(cut.tryAcquire("ip:1", now + SECOND_NANOS));
+        assertFalse(cut.tryAcquire("ip:1", now + SECOND_NANOS));
+
+        assertTrue(cut.tryAcquire("ip:1", now + 60 * SECOND_NANOS));
+        assertTrue(cut.tryAcquire("ip:1", now + 60 * SECOND_NANOS));
+        assertTrue(cut.tryAcquire("ip:1", now + 60 * SECOND_NANOS));
+        assertFalse(cut.tryAcquire("ip:1", now + 60 * SECOND_NANOS));
+    }
+
+    @Test
+    @DisplayName("Test checkLimit throws with the retry delay")
+    void should_throw_too_many_requests_with_retry_after() {
+        AuthRateLimiter cut = new AuthRateLimiter(1, 10, 100, 600000);
+        cut.checkLimit("id:alice");
+
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class, () -> {
+            cut.checkLimit("id:alice");
+        });
+
+        assertEquals(6, ex.getRetryAfterSeconds());
+        assertEquals(AuthRateLimiter.identifierKey("alice"), AuthRateLimiter.identifierKey("ALICE"));
+    }
+
+    @Test
+    @DisplayName("Test a full map gives new keys their own bucket")
+    void should_not_share_a_bucket_between_new_keys_when_full() {
+        AuthRateLimiter cut = new AuthRateLimiter(1, 1, 4, 600000);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(cut.tryAcquire("ip:attacker-" + i, i));
+        }
+
+        assertTrue(cut.tryAcquire("ip:user-1", 10));
+        assertTrue(cut.tryAcquire("ip:user-2", 11));
+        assertFalse(cut.tryAcquire("ip:user-2", 12));
+        assertEquals(4, cut.size());
+    }
+
+    @Test
+    @DisplayName("Test a full map evicts the least recently used bucket")
+    void should_evict_least_recently_used_bucket_when_full() {
+        AuthRateLimiter cut = new AuthRateLimiter(1, 1, 3, 600000);
+        cut.tryAcquire("ip:a", 1);
+        cut.tryAcquire("ip:b", 2);
+        cut.tryAcquire("ip:c", 3);
+        cut.tryAcquire("ip:a", 4);
+
+        assertTrue(cut.tryAcquire("ip:d", 5));
+
+        assertEquals(3, cut.size());
+        assertFalse(cut.tryAcquire("ip:a", 6));
+        assertFalse(cut.tryAcquire("ip:c", 7));
+        assertTrue(cut.tryAcquire("ip:b", 8));
+    }
+
+    @Test
+    @DisplayName("Test a full map keeps sampling past the first bins")
+    void should_rotate_eviction_sample_through_the_map() {
+        AuthRateLimiter cut = new AuthRateLimiter(1, 1, 32, 1000);
+        for (int i = 0; i < 32; i++) {
+            cut.tryAcquire("ip:old-" + i, i);
+        }
+
+        // a scan that always started at the first bins would keep evicting new keys there
+        for (int i = 0; i < 64; i++) {
+            assertTrue(cut.tryAcquire("ip:new-" + i, SECOND_NANOS / 10 + i));
+        }
+
+        // only the old buckets are idle by now, so whatever this drops survived the sampled eviction
+        cut.evictIdle(SECOND_NANOS + 64);
+
+        assertEquals(32, cut.size());
+    }
+
+    @Test
+    @DisplayName("Test evictIdle drops only idle buckets")
+    void should_evict_idle_buckets() {
+        AuthRateLimiter cut = new AuthRateLimiter(1, 1, 100, 1000);
+        cut.tryAcquire("ip:idle", 0);
+        cut.tryAcquire("ip:active", 2 * SECOND_NANOS);
+
+        cut.evictIdle(2 * SECOND_NANOS + 1);
+
+        assertEquals(1, cut.size());
+        assertFalse(cut.tryAcquire("ip:active", 2 * SECOND_NANOS + 2));
+    }
+}
@@ -0,0 +1,90 @@
+package com.sinandemir.todoapp.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.sinandemir.todoapp.exceptions.ServiceUnavailableException;
+
+public class BoundedPasswordEncoderTest {
+
+    @Mock
+    private PasswordEncoder delegate;
+
+    private PasswordHashingExecutor executor;
+    private BoundedPasswordEncoder cut;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = new PasswordHashingExecutor(1, 1, 3);
+        cut = new BoundedPasswordEncoder(delegate, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test encode and matches run on the hashing pool")
+    void should_delegate_through_executor() {
+        when(delegate.encode("secret")).thenReturn("hash");
+        when(delegate.matches("secret", "hash")).thenReturn(true);
+
+        assertEquals("hash", cut.encode("secret"));
+        assertTrue(cut.matches("secret", "hash"));
+        assertEquals(2, executor.getHashCount());
+    }
+
+    @Test
+    @DisplayName("Test matches fails fast with 503 details when the hashing queue is full")
+    void should_throw_service_unavailable_when_queue_is_full() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(delegate.matches("slow", "hash")).thenAnswer((invocation) -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> cut.matches("slow", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> cut.matches("queued", "hash"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getQueueDepth() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> cut.matches("rejected", "hash"));
+
+        assertEquals(3, exception.getRetryAfterSeconds());
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Test upgradeEncoding is answered by the delegate without queueing")
+    void should_not_queue_upgrade_encoding() {
+        when(delegate.upgradeEncoding("hash")).thenReturn(true);
+
+        assertTrue(cut.upgradeEncoding("hash"));
+        verify(delegate).upgradeEncoding("hash");
+        assertEquals(0, executor.getHashCount());
+    }
+}
@@ -0,0 +1,129 @@
+package com.sinandemir.todoapp.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.sinandemir.todoapp.entities.Role;
+import com.sinandemir.todoapp.entities.User;
+import com.sinandemir.todoapp.services.RoleService;
+import com.sinandemir.todoapp.services.UserService;
+
+public class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private RoleService roleService;
+
+    private CustomUserDetailsService cut;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        cut = new CustomUserDetailsService(userService, new UserDetailsCache(100, 60000), roleService);
+        when(roleService.getAuthority("ROLE_USER")).thenReturn(new SimpleGrantedAuthority("ROLE_USER"));
+    }
+
+    @Test
+    @DisplayName("Test loadUserByUsername keeps users differing only by case apart once cached")
+    void should_load_case_variant_users_as_themselves() {
+        User upper = user(1L, "Alice", "upper-hash");
+        User lower = user(2L, "alice", "lower-hash");
+        when(userService.findByLoginIdentifier("Alice")).thenReturn(Optional.of(upper));
+        when(userService.findByLoginIdentifier("alice")).thenReturn(Optional.of(lower));
+
+        for (int i = 0; i < 2; i++) {
+            AuthenticatedUser loadedUpper = (AuthenticatedUser) cut.loadUserByUsername("Alice");
+            AuthenticatedUser loadedLower = (AuthenticatedUser) cut.loadUserByUsername("alice");
+
+            assertEquals(1L, loadedUpper.getUserId());
+            assertEquals("upper-hash", loadedUpper.getPassword());
+            assertEquals(2L, loadedLower.getUserId());
+            assertEquals("lower-hash", loadedLower.getPassword());
+        }
+        verify(userService, times(1)).findByLoginIdentifier("Alice");
+        verify(userService, times(1)).findByLoginIdentifier("alice");
+    }
+
+    @Test
+    @DisplayName("Test login rehashes a password stored with a lower bcrypt cost")
+    void should_rehash_lower_cost_password_on_login() {
+        AdaptiveBCryptPasswordEncoder passwordEncoder = new AdaptiveBCryptPasswordEncoder(5);
+        User user = user(1L, "rehash-user", new BCryptPasswordEncoder(4).encode("secret"));
+        when(userService.findByLoginIdentifier("rehash-user")).thenReturn(Optional.of(user));
+        when(userService.findById(1L)).thenReturn(Optional.of(user));
+
+        Authentication authentication = authenticationProvider(passwordEncoder)
+                .authenticate(new UsernamePasswordAuthenticationToken("rehash-user", "secret"));
+
+        assertTrue(authentication.isAuthenticated());
+
+        verify(userService).findById(1L);
+        verify(userService).save(user);
+        assertTrue(user.getPassword().startsWith("$2a$05$"));
+        assertTrue(passwordEncoder.matches("secret", user.getPassword()));
+    }
+
+    @Test
+    @DisplayName("Test login keeps a password already stored with the current bcrypt cost")
+    void should_not_rehash_current_cost_password_on_login() {
+        AdaptiveBCryptPasswordEncoder passwordEncoder = new AdaptiveBCryptPasswordEncoder(4);
+        String storedHash = passwordEncoder.encode("secret");
+        User user = user(1L, "current-user", storedHash);
+        when(userService.findByLoginIdentifier("current-user")).thenReturn(Optional.of(user));
+
+        authenticationProvider(passwordEncoder)
+                .authenticate(new UsernamePasswordAuthenticationToken("current-user", "secret"));
+
+        verify(userService, never()).save(any());
+        assertSame(storedHash, user.getPassword());
+    }
+
+    @Test
+    @DisplayName("Test login keeps a password stored with a higher bcrypt cost than this instance's")
+    void should_not_downgrade_higher_cost_password_on_login() {
+        AdaptiveBCryptPasswordEncoder passwordEncoder = new AdaptiveBCryptPasswordEncoder(4);
+        String storedHash = new BCryptPasswordEncoder(5).encode("secret");
+        User user = user(1L, "stronger-user", storedHash);
+        when(userService.findByLoginIdentifier("stronger-user")).thenReturn(Optional.of(user));
+
+        authenticationProvider(passwordEncoder)
+                .authenticate(new UsernamePasswordAuthenticationToken("stronger-user", "secret"));
+
+        verify(userService, never()).save(any());
+        assertSame(storedHash, user.getPassword());
+    }
+
+    private DaoAuthenticationProvider authenticationProvider(AdaptiveBCryptPasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider(passwordEncoder);
+        authenticationProvider.setUserDetailsService(cut);
+        authenticationProvider.setUserDetailsPasswordService(cut);
+        return authenticationProvider;
+    }
+
+    private static User user(Long id, String username, String password) {
+        return new User(id, username, username, username + "@fake-email.com", password,
+                Set.of(new Role(1L, "ROLE_USER")), 0);
+    }
+}
@@ -0,0 +1,111 @@
+package com.sinandemir.todoapp.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sinandemir.todoapp.services.UserService;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+public class JwtAuthenticationFilterTest {
+
+    private static final String JWT_SECRET = "2f39dcfd3d731707ebadd4cc660fad62d5c754694095ad5081126c4f6ac44dc4";
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private TokenVersionRegistry tokenVersionRegistry;
+    private JwtTokenProvider jwtTokenProvider;
+    private JwtAuthenticationFilter cut;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tokenVersionRegistry = new TokenVersionRegistry(userService);
+        jwtTokenProvider = new JwtTokenProvider(tokenVersionRegistry);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationDate", 60_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "refreshTokenExpirationDate", 60_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "verifiedCacheSize", 100);
+        jwtTokenProvider.init();
+
+        cut = new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService);
+        ReflectionTestUtils.setField(cut, "statelessAuthentication", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Test filter authenticates a token carrying the current version")
+    void should_authenticate_current_token() throws Exception {
+        tokenVersionRegistry.setVersion(1L, 2);
+        String token = jwtTokenProvider.generateToken("current-user", 1L, List.of("ROLE_USER"));
+
+        Authentication authentication = filter(token);
+
+        assertNotNull(authentication);
+        assertEquals(1L, ((AuthenticatedUser) authentication.getPrincipal()).getUserId());
+    }
+
+    @Test
+    @DisplayName("Test filter rejects a token issued before the user's version was bumped")
+    void should_reject_stale_version_token() throws Exception {
+        String token = jwtTokenProvider.generateToken("stale-user", 1L, List.of("ROLE_USER"));
+        tokenVersionRegistry.setVersion(1L, 1);
+
+        assertNull(filter(token));
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    @DisplayName("Test filter rejects a token without a uid claim")
+    void should_reject_token_without_user_id() throws Exception {
+        String token = Jwts.builder()
+                .setSubject("legacy-user")
+                .claim("roles", List.of("ROLE_USER"))
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000L))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(JWT_SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertNull(filter(token));
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    private Authentication filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/todos");
+        request.addHeader("Authorization", "Bearer " + token);
+        cut.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,34 @@
+package com.sinandemir.todoapp.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class JwtTokenProviderTest {
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Test
+    @DisplayName("Test verify answers a repeated token from the cache without parsing it again")
+    void should_skip_verification_on_cache_hit() {
+        String token = jwtTokenProvider.generateToken("cached-user", 1L, List.of("ROLE_USER"));
+        String otherToken = jwtTokenProvider.generateToken("other-user", 2L, List.of("ROLE_USER"));
+
+        VerifiedToken first = jwtTokenProvider.verify(token);
+        VerifiedToken second = jwtTokenProvider.verify(token);
+
+        // parsing builds a new instance, so the same one means the signature check was skipped
+        assertSame(first, second);
+        assertEquals("cached-user", second.getSubject());
+        assertNotSame(first, jwtTokenProvider.verify(otherToken));
+    }
+}
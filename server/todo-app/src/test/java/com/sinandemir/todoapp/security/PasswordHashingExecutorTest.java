@@ -0,0 +1,93 @@
+package com.sinandemir.todoapp.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sinandemir.todoapp.exceptions.ServiceUnavailableException;
+
+public class PasswordHashingExecutorTest {
+
+    private PasswordHashingExecutor cut;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        // one worker and one queue slot, so the third caller finds the queue full
+        cut = new PasswordHashingExecutor(1, 1, 7);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        cut.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test execute reports active and queued hashes and rejects once the queue is full")
+    void should_reject_when_queue_is_full() throws Exception {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> cut.execute(this::blockedHash));
+        awaitTrue(() -> cut.getActiveCount() == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> cut.execute(() -> "queued"));
+        awaitTrue(() -> cut.getQueueDepth() == 1);
+
+        assertEquals(1, cut.getActiveCount());
+        assertEquals(1, cut.getQueueDepth());
+
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> cut.execute(() -> "rejected"));
+
+        assertEquals(7, exception.getRetryAfterSeconds());
+        assertEquals(1, cut.getRejectedCount());
+
+        release.countDown();
+
+        assertEquals("running", running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        awaitTrue(() -> cut.getHashCount() == 2);
+        assertEquals(0, cut.getQueueDepth());
+        assertEquals(1, cut.getRejectedCount());
+        assertTrue(cut.getMaxHashLatencyMillis() >= cut.getAverageHashLatencyMillis());
+        assertTrue(cut.getAverageHashLatencyMillis() > 0);
+    }
+
+    @Test
+    @DisplayName("Test execute rethrows the task's own exception")
+    void should_rethrow_task_exception() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> cut.execute(() -> {
+                    throw new IllegalArgumentException("bad hash");
+                }));
+
+        assertEquals("bad hash", exception.getMessage());
+        assertEquals(0, cut.getRejectedCount());
+    }
+
+    private String blockedHash() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "running";
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.sinandemir.todoapp.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SampledEvictionTest {
+
+    @Test
+    @DisplayName("Test evictOne drops the least recently used entry of its sample")
+    void should_evict_least_recently_used_of_sample() {
+        ConcurrentHashMap<String, Long> entries = new ConcurrentHashMap<>();
+        entries.put("a", 5L);
+        entries.put("b", 1L);
+        entries.put("c", 3L);
+        SampledEviction<String, Long> cut = new SampledEviction<>(entries, 16, (lastAccess) -> lastAccess);
+
+        assertTrue(cut.evictOne((lastAccess) -> false));
+
+        assertFalse(entries.containsKey("b"));
+        assertEquals(2, entries.size());
+    }
+
+    @Test
+    @DisplayName("Test evictOne drops a stale entry before an older live one")
+    void should_evict_stale_entry_first() {
+        ConcurrentHashMap<String, Long> entries = new ConcurrentHashMap<>();
+        entries.put("old", 1L);
+        entries.put("stale", 100L);
+        SampledEviction<String, Long> cut = new SampledEviction<>(entries, 16, (lastAccess) -> lastAccess);
+
+        assertTrue(cut.evictOne((lastAccess) -> lastAccess == 100L));
+
+        assertEquals(1, entries.size());
+        assertTrue(entries.containsKey("old"));
+    }
+
+    @Test
+    @DisplayName("Test successive samples walk the whole map instead of the first bins")
+    void should_rotate_sample_through_the_map() {
+        ConcurrentHashMap<Integer, Long> entries = new ConcurrentHashMap<>();
+        for (int i = 0; i < 64; i++) {
+            entries.put(i, 0L);
+        }
+        SampledEviction<Integer, Long> cut = new SampledEviction<>(entries, 4, (lastAccess) -> lastAccess);
+
+        // with equal access times each sample drops its first entry. a sample that restarted at the head would
+        // drop keys 0 to 15; a rotating one drops the first key of every group of four, up to the last bins
+        for (int i = 0; i < 16; i++) {
+            cut.evictOne((lastAccess) -> false);
+        }
+
+        assertEquals(48, entries.size());
+        assertTrue(entries.containsKey(1));
+        assertFalse(entries.containsKey(60));
+    }
+
+    @Test
+    @DisplayName("Test evictOne on an empty map removes nothing")
+    void should_evict_nothing_from_empty_map() {
+        SampledEviction<String, Long> cut = new SampledEviction<>(new ConcurrentHashMap<>(), 16,
+                (lastAccess) -> lastAccess);
+
+        assertFalse(cut.evictOne((lastAccess) -> true));
+    }
+}
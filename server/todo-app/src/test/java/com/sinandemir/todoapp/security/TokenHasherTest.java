@@ -0,0 +1,31 @@
+package com.sinandemir.todoapp.security;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TokenHasherTest {
+
+    @Test
+    @DisplayName("Test sha256 matches the standard digest")
+    void should_hash_with_sha256() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                HexFormat.of().formatHex(TokenHasher.sha256("abc")));
+    }
+
+    @Test
+    @DisplayName("Test sha256 is stable per token and differs between tokens")
+    void should_hash_same_token_to_same_digest() {
+        byte[] digest = TokenHasher.sha256("token");
+
+        assertEquals(32, digest.length);
+        assertArrayEquals(digest, TokenHasher.sha256("token"));
+        assertFalse(Arrays.equals(digest, TokenHasher.sha256("token2")));
+    }
+}
@@ -0,0 +1,109 @@
+package com.sinandemir.todoapp.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.sinandemir.todoapp.repositories.UserTokenVersionView;
+import com.sinandemir.todoapp.services.UserService;
+
+public class TokenVersionRegistryTest {
+
+    @Mock
+    private UserService userService;
+
+    private TokenVersionRegistry cut;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cut = new TokenVersionRegistry(userService);
+    }
+
+    @Test
+    @DisplayName("Test reload seeds the table with the stored token versions")
+    void should_load_versions_on_reload() {
+        when(userService.findNonZeroTokenVersions()).thenReturn(List.of(view(1L, 2), view(7L, 5)));
+
+        cut.afterSingletonsInstantiated();
+
+        assertEquals(2, cut.size());
+        assertEquals(2, cut.currentVersion(1L));
+        assertEquals(5, cut.currentVersion(7L));
+        assertEquals(0, cut.currentVersion(3L));
+        assertEquals(0, cut.currentVersion(null));
+    }
+
+    @Test
+    @DisplayName("Test setVersion replaces a bumped version and drops a version reset to zero")
+    void should_bump_and_reset_version() {
+        cut.setVersion(1L, 1);
+        cut.setVersion(2L, 1);
+        cut.setVersion(1L, 2);
+
+        assertEquals(2, cut.size());
+        assertEquals(2, cut.currentVersion(1L));
+        assertEquals(1, cut.currentVersion(2L));
+
+        cut.setVersion(1L, 0);
+
+        assertEquals(1, cut.size());
+        assertEquals(0, cut.currentVersion(1L));
+        assertEquals(1, cut.currentVersion(2L));
+    }
+
+    @Test
+    @DisplayName("Test setVersion keeps every version reachable while the table grows")
+    void should_resolve_collisions_while_resizing() {
+        // enough ids to force several resizes and colliding slots on the way
+        for (long userId = 1; userId <= 1000; userId++) {
+            cut.setVersion(userId, (int) (userId % 7) + 1);
+        }
+
+        assertEquals(1000, cut.size());
+        for (long userId = 1; userId <= 1000; userId++) {
+            assertEquals((int) (userId % 7) + 1, cut.currentVersion(userId));
+        }
+        assertEquals(0, cut.currentVersion(1001L));
+    }
+
+    @Test
+    @DisplayName("Test reload resizes the table for many stored versions")
+    void should_resolve_collisions_on_reload() {
+        List<UserTokenVersionView> views = new ArrayList<>();
+        for (long userId = 1; userId <= 500; userId++) {
+            views.add(view(userId * 1024, 3));
+        }
+        when(userService.findNonZeroTokenVersions()).thenReturn(views);
+
+        cut.reload();
+
+        assertEquals(500, cut.size());
+        for (long userId = 1; userId <= 500; userId++) {
+            assertEquals(3, cut.currentVersion(userId * 1024));
+        }
+        assertEquals(0, cut.currentVersion(1L));
+    }
+
+    private static UserTokenVersionView view(Long id, Integer tokenVersion) {
+        return new UserTokenVersionView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getTokenVersion() {
+                return tokenVersion;
+            }
+        };
+    }
+}
@@ -0,0 +1,182 @@
+package com.sinandemir.todoapp.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.sinandemir.todoapp.entities.User;
+import com.sinandemir.todoapp.services.UserSavedEvent;
+
+public class UserDetailsCacheTest {
+
+    private static final Set<GrantedAuthority> AUTHORITIES = Set.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    @Test
+    @DisplayName("Test get returns a cached user by the identifier it was loaded with")
+    void should_hit_by_exact_identifier() {
+        UserDetailsCache cut = new UserDetailsCache(10, 1000);
+        cut.put(cut.generation(), "Alice@Example.com", 1L, "Alice", "hash", AUTHORITIES, 0);
+
+        UserDetails byEmail = cut.get("Alice@Example.com", 10);
+
+        assertNotNull(byEmail);
+        assertEquals("Alice@Example.com", byEmail.getUsername());
+        assertEquals("hash", byEmail.getPassword());
+        assertEquals(1L, ((AuthenticatedUser) byEmail).getUserId());
+        assertNull(cut.get("alice@example.com", 10));
+        assertEquals(1, cut.getHitCount());
+        assertEquals(1, cut.getMissCount());
+    }
+
+    @Test
+    @DisplayName("Test users differing only by case keep their own entries")
+    void should_keep_case_variant_users_apart() {
+        UserDetailsCache cut = new UserDetailsCache(10, 1000);
+        cut.put(cut.generation(), "Alice", 1L, "Alice", "hash-1", AUTHORITIES, 0);
+        cut.put(cut.generation(), "alice", 2L, "alice", "hash-2", AUTHORITIES, 0);
+
+        assertEquals(1L, ((AuthenticatedUser) cut.get("Alice", 1)).getUserId());
+        assertEquals("hash-1", cut.get("Alice", 1).getPassword());
+        assertEquals(2L, ((AuthenticatedUser) cut.get("alice", 1)).getUserId());
+        assertEquals("hash-2", cut.get("alice", 1).getPassword());
+        assertNull(cut.get("ALICE", 1));
+
+        cut.invalidate(1L);
+
+        assertNull(cut.get("Alice", 2));
+        assertNotNull(cut.get("alice", 2));
+    }
+
+    @Test
+    @DisplayName("Test get counts a miss for an unknown user")
+    void should_miss_unknown_user() {
+        UserDetailsCache cut = new UserDetailsCache(10, 1000);
+
+        assertNull(cut.get("nobody", 0));
+        assertEquals(1, cut.getMissCount());
+    }
+
+    @Test
+    @DisplayName("Test get drops an entry once its ttl has passed")
+    void should_expire_entry_after_ttl() {
+        UserDetailsCache cut = new UserDetailsCache(10, 1000);
+        cut.put(cut.generation(), "alice", 1L, "alice", "hash", AUTHORITIES, 0);
+        cut.put(cut.generation(), "bob", 2L, "bob", "hash", AUTHORITIES, 500);
+
+        assertNotNull(cut.get("alice", 999));
+        assertNull(cut.get("alice", 1000));
+        assertEquals(1, cut.size());
+        assertEquals(1, cut.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("Test put evicts the least recently used entry when full")
+    void should_evict_least_recently_used_entry() {
+        UserDetailsCache cut = new UserDetailsCache(2, 1000);
+        cut.put(cut.generation(), "alice", 1L, "alice", "hash", AUTHORITIES, 0);
+        cut.put(cut.generation(), "bob", 2L, "bob", "hash", AUTHORITIES, 0);
+
+        cut.get("alice", 1);
+        cut.put(cut.generation(), "carol", 3L, "carol", "hash", AUTHORITIES, 2);
+
+        assertEquals(2, cut.size());
+        assertEquals(1, cut.getEvictionCount());
+        assertNotNull(cut.get("alice", 3));
+        assertNull(cut.get("bob", 3));
+        assertNotNull(cut.get("carol", 3));
+    }
+
+    @Test
+    @DisplayName("Test invalidate removes every key of the user and nothing else")
+    void should_invalidate_all_keys_of_user() {
+        UserDetailsCache cut = new UserDetailsCache(10, 1000);
+        cut.put(cut.generation(), "alice", 1L, "alice", "hash", AUTHORITIES, 0);
+        cut.put(cut.generation(), "alice@example.com", 1L, "alice", "hash", AUTHORITIES, 0);
+        cut.put(cut.generation(), "bob", 2L, "bob", "hash", AUTHORITIES, 0);
+
+        cut.invalidate(1L);
+
+        assertNull(cut.get("alice", 1));
+        assertNull(cut.get("alice@example.com", 1));
+        assertNotNull(cut.get("bob", 1));
+        assertEquals(1, cut.size());
+    }
+
+    @Test
+    @DisplayName("Test put ignores a copy loaded before the user was invalidated")
+    void should_not_cache_copy_loaded_before_invalidation() {
+        UserDetailsCache cut = new UserDetailsCache(10, 1000);
+        long staleGeneration = cut.generation();
+        long otherGeneration = cut.generation();
+
+        cut.invalidate(1L);
+        cut.put(staleGeneration, "alice", 1L, "alice", "old-hash", AUTHORITIES, 0);
+        cut.put(otherGeneration, "bob", 2L, "bob", "hash", AUTHORITIES, 0);
+
+        assertNull(cut.get("alice", 1));
+        assertNotNull(cut.get("bob", 1));
+
+        cut.put(cut.generation(), "alice", 1L, "alice", "new-hash", AUTHORITIES, 0);
+        assertEquals("new-hash", cut.get("alice", 1).getPassword());
+    }
+
+    @Test
+    @DisplayName("Test an entry cached before its user was invalidated is not served")
+    void should_reject_entry_older_than_invalidation() {
+        UserDetailsCache cut = new UserDetailsCache(10, 1000);
+        cut.put(cut.generation(), "alice", 1L, "alice", "hash", AUTHORITIES, 0);
+        cut.put(cut.generation(), "bob", 2L, "bob", "hash", AUTHORITIES, 0);
+
+        cut.invalidate(1L, 1);
+
+        assertNull(cut.get("alice", 2));
+        assertNotNull(cut.get("bob", 2));
+        assertEquals(1, cut.size());
+    }
+
+    @Test
+    @DisplayName("Test a load older than a forgotten invalidation is not cached")
+    void should_not_cache_load_slower_than_ttl() {
+        UserDetailsCache cut = new UserDetailsCache(10, 1000);
+        long slowGeneration = cut.generation();
+
+        cut.invalidate(1L, 0);
+        // a ttl later the first invalidation is dropped, and the slow load can no longer be checked against it
+        cut.invalidate(2L, 1000);
+        cut.put(slowGeneration, "alice", 1L, "alice", "old-hash", AUTHORITIES, 1001);
+
+        assertNull(cut.get("alice", 1002));
+
+        cut.put(cut.generation(), "alice", 1L, "alice", "new-hash", AUTHORITIES, 1001);
+        assertEquals("new-hash", cut.get("alice", 1002).getPassword());
+    }
+
+    @Test
+    @DisplayName("Test onUserSaved drops the saved user and every case variant of its identifiers")
+    void should_invalidate_saved_user_and_case_variants() {
+        UserDetailsCache cut = new UserDetailsCache(10, 1000);
+        cut.put(cut.generation(), "alice", 1L, "alice", "hash", AUTHORITIES, 0);
+        cut.put(cut.generation(), "ALICE", 1L, "alice", "hash", AUTHORITIES, 0);
+        cut.put(cut.generation(), "bob", 2L, "bob", "hash", AUTHORITIES, 0);
+
+        // a second user taking "Alice" makes "ALICE" ambiguous, so no cached variant may survive
+        User newUser = new User();
+        newUser.setId(3L);
+        newUser.setUsername("Alice");
+        newUser.setEmail("alice-2@example.com");
+        cut.onUserSaved(new UserSavedEvent(newUser));
+
+        assertNull(cut.get("alice", 1));
+        assertNull(cut.get("ALICE", 1));
+        assertNotNull(cut.get("bob", 1));
+        assertEquals(1, cut.size());
+    }
+}
@@ -0,0 +1,82 @@
+package com.sinandemir.todoapp.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class VerifiedTokenCacheTest {
+
+    @Test
+    @DisplayName("Test get drops a token once it has expired")
+    void should_evict_expired_token_on_get() {
+        VerifiedTokenCache cut = new VerifiedTokenCache(10);
+        VerifiedToken token = token(1000);
+        cut.put(digest("a"), token, 0);
+
+        assertSame(token, cut.get(digest("a"), 999));
+        assertNull(cut.get(digest("a"), 1000));
+        assertEquals(0, cut.size());
+    }
+
+    @Test
+    @DisplayName("Test put never grows the cache past its size")
+    void should_bound_size() {
+        VerifiedTokenCache cut = new VerifiedTokenCache(3);
+        for (int i = 0; i < 10; i++) {
+            cut.put(digest("token-" + i), token(10_000), i);
+        }
+
+        assertEquals(3, cut.size());
+        assertNotNull(cut.get(digest("token-9"), 10));
+    }
+
+    @Test
+    @DisplayName("Test put evicts an expired token before a live one")
+    void should_evict_expired_token_first_when_full() {
+        VerifiedTokenCache cut = new VerifiedTokenCache(2);
+        cut.put(digest("live"), token(10_000), 0);
+        cut.put(digest("expiring"), token(100), 1);
+
+        cut.put(digest("new"), token(10_000), 200);
+
+        assertNotNull(cut.get(digest("live"), 201));
+        assertNotNull(cut.get(digest("new"), 201));
+        assertEquals(2, cut.size());
+    }
+
+    @Test
+    @DisplayName("Test put evicts the least recently used token when none has expired")
+    void should_evict_least_recently_used_token_when_full() {
+        VerifiedTokenCache cut = new VerifiedTokenCache(2);
+        cut.put(digest("a"), token(10_000), 0);
+        cut.put(digest("b"), token(10_000), 1);
+        cut.get(digest("a"), 2);
+
+        cut.put(digest("c"), token(10_000), 3);
+
+        assertNotNull(cut.get(digest("a"), 4));
+        assertNull(cut.get(digest("b"), 4));
+        assertNotNull(cut.get(digest("c"), 4));
+    }
+
+    @Test
+    @DisplayName("Test a cache without entries is disabled")
+    void should_be_disabled_without_entries() {
+        assertFalse(new VerifiedTokenCache(0).isEnabled());
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(TokenHasher.sha256(token));
+    }
+
+    private static VerifiedToken token(long expiresAtMillis) {
+        return new VerifiedToken("user", 1L, null, 0, expiresAtMillis);
+    }
+}
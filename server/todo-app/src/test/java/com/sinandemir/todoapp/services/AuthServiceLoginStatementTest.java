@@ -0,0 +1,138 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sinandemir.todoapp.dto.requests.UserLoginRequest;
+import com.sinandemir.todoapp.dto.responses.UserLoginResponse;
+import com.sinandemir.todoapp.entities.Role;
+import com.sinandemir.todoapp.entities.User;
+import com.sinandemir.todoapp.repositories.RoleRepository;
+import com.sinandemir.todoapp.security.JwtTokenProvider;
+import com.sinandemir.todoapp.security.TokenVersionRegistry;
+import com.sinandemir.todoapp.security.UserDetailsCache;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class AuthServiceLoginStatementTest {
+
+    private static final String PASSWORD = "login-statement-password";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        Role role = roleRepository.findByName("ROLE_USER");
+        if (role == null) {
+            role = roleRepository.save(new Role(null, "ROLE_USER"));
+        }
+
+        user = new User(null, "login statement", "login-statement-user", "login-statement-user@fake-email.com",
+                passwordEncoder.encode(PASSWORD), Set.of(role), 0);
+        user = userService.save(user);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        // the rollback publishes no commit event, so the cached copy has to go by hand
+        userDetailsCache.invalidate(user.getId());
+    }
+
+    @Test
+    @DisplayName("Test login with a differently cased identifier")
+    void should_login_case_insensitively_through_login_identifiers() {
+        UserLoginRequest loginRequest = new UserLoginRequest(user.getEmail().toUpperCase(), PASSWORD);
+
+        UserLoginResponse login = authService.login(loginRequest);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(user.getId(), login.getUserId());
+        assertEquals(user.getUsername(), jwtTokenProvider.getUsername(login.getAccessToken()));
+    }
+
+    @Test
+    @DisplayName("Test login issues one user query and one refresh token upsert")
+    void should_login_with_two_statements_then_one_when_user_details_are_cached() {
+        UserLoginRequest loginRequest = new UserLoginRequest(user.getUsername(), PASSWORD);
+
+        UserLoginResponse firstLogin = authService.login(loginRequest);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertNotNull(firstLogin.getRefreshToken());
+        assertEquals(user.getId(), firstLogin.getUserId());
+        assertEquals("ROLE_USER", firstLogin.getRole());
+
+        statistics.clear();
+        UserLoginResponse secondLogin = authService.login(loginRequest);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(firstLogin.getRefreshToken(), secondLogin.getRefreshToken());
+    }
+
+    @Test
+    @DisplayName("Test logoutAll revokes previously issued tokens")
+    void should_logout_all_revoke_access_and_refresh_tokens() {
+        UserLoginResponse login = authService.login(new UserLoginRequest(user.getUsername(), PASSWORD));
+
+        authService.logoutAll(user.getId());
+
+        assertEquals(1, tokenVersionRegistry.currentVersion(user.getId()));
+        assertFalse(jwtTokenProvider.isCurrentVersion(jwtTokenProvider.verify(login.getAccessToken()), user.getId()));
+        assertFalse(jwtTokenProvider.isRefreshTokenCurrent(login.getRefreshToken()));
+
+        UserLoginResponse nextLogin = authService.login(new UserLoginRequest(user.getUsername(), PASSWORD));
+
+        assertTrue(jwtTokenProvider.isCurrentVersion(jwtTokenProvider.verify(nextLogin.getAccessToken()),
+                user.getId()));
+        assertTrue(jwtTokenProvider.isRefreshTokenCurrent(nextLogin.getRefreshToken()));
+    }
+}
@@ -4,10 +4,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -17,21 +20,26 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.sinandemir.todoapp.dto.requests.UserLoginRequest;
 import com.sinandemir.todoapp.dto.requests.UserRegisterRequest;
 import com.sinandemir.todoapp.dto.responses.UserLoginResponse;
 import com.sinandemir.todoapp.dto.responses.UserRegisterResponse;
-import com.sinandemir.todoapp.entities.RefreshToken;
 import com.sinandemir.todoapp.entities.Role;
 import com.sinandemir.todoapp.entities.User;
+import com.sinandemir.todoapp.exceptions.RefreshTokenExpiredException;
 import com.sinandemir.todoapp.exceptions.ResourceNotFoundException;
 import com.sinandemir.todoapp.exceptions.TodoGlobalException;
+import com.sinandemir.todoapp.repositories.UserIdentifierView;
+import com.sinandemir.todoapp.security.AuthenticatedUser;
 import com.sinandemir.todoapp.security.JwtTokenProvider;
+import com.sinandemir.todoapp.security.TokenVersionRegistry;
 
 @SpringBootTest
 public class AuthServiceTest {
@@ -42,9 +50,6 @@ public class AuthServiceTest {
     @Mock
     private RoleService roleService;
 
-    @Mock
-    private ModelMapper modelMapper;
-
     @Mock
     private JwtTokenProvider tokenProvider;
 
@@ -57,6 +62,12 @@ public class AuthServiceTest {
     @Mock
     PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserIdentifierBloomFilter userIdentifierBloomFilter;
+
+    @Mock
+    private TokenVersionRegistry tokenVersionRegistry;
+
     @InjectMocks
     private AuthService cut;
 
@@ -89,33 +100,26 @@ public class AuthServiceTest {
 
         user.setRoles(roles);
 
-        UserRegisterResponse registerResponse = new UserRegisterResponse();
-        registerResponse.setEmail(user.getEmail());
-        registerResponse.setUsername(user.getUsername());
-        registerResponse.setName(user.getName());
-        registerResponse.setId(1L);
-
-        when(userService.existsByEmail(registerRequest.getEmail())).thenReturn(false);
-        when(userService.existsByUsername(registerRequest.getUsername())).thenReturn(false);
+        when(userIdentifierBloomFilter.mightContainAny(registerRequest.getUsername(), registerRequest.getEmail()))
+                .thenReturn(true);
+        when(userService.findIdentifierConflicts(registerRequest.getUsername(), registerRequest.getEmail()))
+                .thenReturn(List.of());
         when(passwordEncoder.encode(registerRequest.getPassword())).thenReturn("encoded-password");
         when(roleService.findByName("ROLE_USER")).thenReturn(role);
         when(userService.save(user)).thenReturn(user);
-        when(modelMapper.map(user, UserRegisterResponse.class)).thenReturn(registerResponse);
 
         UserRegisterResponse result = cut.register(registerRequest);
 
         assertNotNull(result);
+        assertEquals(user.getId(), result.getId());
         assertEquals(user.getEmail(), result.getEmail());
         assertEquals(user.getName(), result.getName());
         assertEquals(user.getUsername(), result.getUsername());
 
-        verify(userService).existsByEmail(registerRequest.getEmail());
-        verify(userService).existsByUsername(registerRequest.getUsername());
+        verify(userService).findIdentifierConflicts(registerRequest.getUsername(), registerRequest.getEmail());
         verify(passwordEncoder).encode(registerRequest.getPassword());
         verify(roleService).findByName("ROLE_USER");
         verify(userService).save(user);
-        verify(modelMapper).map(user, UserRegisterResponse.class);
-
     }
 
     @Test
@@ -123,8 +127,12 @@ public class AuthServiceTest {
     void should_register_throws_an_exception_by_exists_by_username() {
         UserRegisterRequest registerRequest = new UserRegisterRequest();
         registerRequest.setUsername("someValue");
+        registerRequest.setEmail("xxx@fake-email.com");
 
-        when(userService.existsByUsername(registerRequest.getUsername())).thenReturn(true);
+        when(userIdentifierBloomFilter.mightContainAny(registerRequest.getUsername(), registerRequest.getEmail()))
+                .thenReturn(true);
+        when(userService.findIdentifierConflicts(registerRequest.getUsername(), registerRequest.getEmail()))
+                .thenReturn(List.of(identifiers("someValue", "other@fake-email.com")));
 
         TodoGlobalException ex = assertThrows(TodoGlobalException.class, () -> {
             cut.register(registerRequest);
@@ -132,24 +140,82 @@ public class AuthServiceTest {
 
         assertEquals("username is already exist!", ex.getMessage());
 
-        verify(userService).existsByUsername(registerRequest.getUsername());
+        verify(userService).findIdentifierConflicts(registerRequest.getUsername(), registerRequest.getEmail());
     }
 
     @Test
     @DisplayName("Test register throws an exception by existsByEmail")
     void should_register_throws_an_exception_by_exists_by_email() {
         UserRegisterRequest registerRequest = new UserRegisterRequest();
+        registerRequest.setUsername("someValue");
         registerRequest.setEmail("someValue");
 
-        when(userService.existsByEmail(registerRequest.getEmail())).thenReturn(true);
+        when(userIdentifierBloomFilter.mightContainAny(registerRequest.getUsername(), registerRequest.getEmail()))
+                .thenReturn(true);
+        when(userService.findIdentifierConflicts(registerRequest.getUsername(), registerRequest.getEmail()))
+                .thenReturn(List.of(identifiers("otherValue", "someValue")));
+
+        TodoGlobalException ex = assertThrows(TodoGlobalException.class, () -> {
+            cut.register(registerRequest);
+        });
+
+        assertEquals("email is already exist!", ex.getMessage());
+
+        verify(userService).findIdentifierConflicts(registerRequest.getUsername(), registerRequest.getEmail());
+    }
+
+    @Test
+    @DisplayName("Test register skips the conflict query when the bloom filter rules it out")
+    void should_register_without_conflict_query_when_identifiers_are_definitely_free() {
+        UserRegisterRequest registerRequest = new UserRegisterRequest("someValue", "someValue", "xxx@fake-email.com",
+                "someValue");
+
+        when(userIdentifierBloomFilter.mightContainAny(registerRequest.getUsername(), registerRequest.getEmail()))
+                .thenReturn(false);
+        when(userService.save(any(User.class))).thenAnswer((invocation) -> invocation.getArgument(0));
+
+        cut.register(registerRequest);
+
+        verify(userService, never()).findIdentifierConflicts(registerRequest.getUsername(), registerRequest.getEmail());
+    }
+
+    @Test
+    @DisplayName("Test register maps a unique constraint violation to the conflict message")
+    void should_register_map_constraint_violation_to_conflict_message() {
+        UserRegisterRequest registerRequest = new UserRegisterRequest("someValue", "someValue", "xxx@fake-email.com",
+                "someValue");
+
+        when(userIdentifierBloomFilter.mightContainAny(registerRequest.getUsername(), registerRequest.getEmail()))
+                .thenReturn(false);
+        when(userService.save(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(userService.findIdentifierConflicts(registerRequest.getUsername(), registerRequest.getEmail()))
+                .thenReturn(List.of(identifiers("otherValue", "xxx@fake-email.com")));
 
         TodoGlobalException ex = assertThrows(TodoGlobalException.class, () -> {
             cut.register(registerRequest);
         });
 
         assertEquals("email is already exist!", ex.getMessage());
+    }
 
-        verify(userService).existsByEmail(registerRequest.getEmail());
+    private UserIdentifierView identifiers(String username, String email) {
+        return new UserIdentifierView() {
+            @Override
+            public Long getId() {
+                return 1L;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
     }
 
     @Test
@@ -164,8 +230,9 @@ public class AuthServiceTest {
 
         when(tokenProvider.getUserId(refreshToken)).thenReturn(userId);
         when(userService.findById(userId)).thenReturn(Optional.of(user));
+        when(tokenProvider.isRefreshTokenCurrent(refreshToken)).thenReturn(true);
         when(tokenProvider.validateToken(refreshToken)).thenReturn(true);
-        when(tokenProvider.generateToken(user.getUsername())).thenReturn(jwtToken);
+        when(tokenProvider.generateToken(user.getUsername(), userId, List.of())).thenReturn(jwtToken);
 
         String result = cut.refreshAccessToken(refreshToken);
 
@@ -175,7 +242,7 @@ public class AuthServiceTest {
         verify(tokenProvider).getUserId(refreshToken);
         verify(userService).findById(userId);
         verify(tokenProvider).validateToken(refreshToken);
-        verify(tokenProvider).generateToken(user.getUsername());
+        verify(tokenProvider).generateToken(user.getUsername(), userId, List.of());
 
     }
 
@@ -190,6 +257,7 @@ public class AuthServiceTest {
 
         when(tokenProvider.getUserId(refreshToken)).thenReturn(userId);
         when(userService.findById(userId)).thenReturn(Optional.of(user));
+        when(tokenProvider.isRefreshTokenCurrent(refreshToken)).thenReturn(true);
         when(tokenProvider.validateToken(refreshToken)).thenReturn(false);
 
         String result = cut.refreshAccessToken(refreshToken);
@@ -202,38 +270,68 @@ public class AuthServiceTest {
     }
 
     @Test
-    @DisplayName("Test login")
-    void should_login_return_login_response_with_exists_refresh_token_by_login_request() {
+    @DisplayName("Test refreshAccessToken throws an exception for a revoked token")
+    void refresh_access_token_should_throw_when_token_version_is_revoked() {
+        String refreshToken = "fake-refresh-token";
+
+        when(tokenProvider.getUserId(refreshToken)).thenReturn(1L);
+        when(tokenProvider.isRefreshTokenCurrent(refreshToken)).thenReturn(false);
+
+        assertThrows(RefreshTokenExpiredException.class, () -> {
+            cut.refreshAccessToken(refreshToken);
+        });
+
+        verify(userService, never()).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Test logoutAll")
+    void should_logout_all_bump_token_version_and_drop_refresh_token() {
+        Long userId = 1L;
+
+        when(userService.incrementTokenVersion(userId)).thenReturn(Optional.of(3));
+
+        cut.logoutAll(userId);
+
+        verify(tokenVersionRegistry).setVersion(userId, 3);
+        verify(refreshTokenService).deleteRefreshTokenByUserId(userId);
+    }
+
+    @Test
+    @DisplayName("Test logoutAll throws an exception")
+    void logout_all_should_throw_when_user_not_found() {
+        Long userId = 1L;
+
+        when(userService.incrementTokenVersion(userId)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> {
+            cut.logoutAll(userId);
+        });
+
+        verify(tokenVersionRegistry, never()).setVersion(userId, 0);
+    }
+
+    @Test
+    @DisplayName("Test login signs the access token with the account username, not the typed identifier")
+    void should_login_return_login_response_with_refresh_token_by_login_request() {
 
         UserLoginRequest loginRequest = new UserLoginRequest();
-        loginRequest.setUsernameOrEmail("someValue");
+        loginRequest.setUsernameOrEmail("someone@fake-email.com");
         loginRequest.setPassword("someValue");
 
         String token = "fake-jwt-token";
         String refreshToken = "fake-refresh-token";
         Long userId = 1L;
 
-        Role role = new Role();
-        role.setId(1L);
-        role.setName("ROLE_USER");
-
-        Set<Role> roles = new HashSet<Role>();
-        roles.add(role);
-
-        User user = new User();
-        user.setId(userId);
-        user.setUsername(loginRequest.getUsernameOrEmail());
-        user.setRoles(roles);
+        AuthenticatedUser user = new AuthenticatedUser(loginRequest.getUsernameOrEmail(), "",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), userId, "someUsername");
 
-        RefreshToken refreshTokenObj = new RefreshToken();
-        refreshTokenObj.setRefreshToken(refreshToken);
-        refreshTokenObj.setUser(user);
-
-        when(tokenProvider.generateToken(loginRequest.getUsernameOrEmail())).thenReturn(token);
-        when(userService.findByUsernameOrEmail(
-                loginRequest.getUsernameOrEmail(), loginRequest.getUsernameOrEmail()))
-                .thenReturn(Optional.of(user));
-        when(refreshTokenService.getRefreshTokenByUserId(userId)).thenReturn(refreshTokenObj);
+        when(authenticationManager.authenticate(any()))
+                .thenReturn(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        when(tokenProvider.generateToken("someUsername", userId, List.of("ROLE_USER")))
+                .thenReturn(token);
+        when(refreshTokenService.getOrCreateRefreshToken(userId, "someUsername", List.of("ROLE_USER")))
+                .thenReturn(refreshToken);
 
         UserLoginResponse result = cut.login(loginRequest);
 
@@ -243,60 +341,36 @@ public class AuthServiceTest {
         assertEquals(userId, result.getUserId());
         assertEquals(refreshToken, result.getRefreshToken());
 
-        verify(tokenProvider).generateToken(loginRequest.getUsernameOrEmail());
-        verify(userService).findByUsernameOrEmail(
+        verify(tokenProvider).generateToken("someUsername", userId, List.of("ROLE_USER"));
+        verify(refreshTokenService).getOrCreateRefreshToken(userId, "someUsername", List.of("ROLE_USER"));
+        verify(userService, never()).findByUsernameOrEmail(
                 loginRequest.getUsernameOrEmail(), loginRequest.getUsernameOrEmail());
-        verify(refreshTokenService).getRefreshTokenByUserId(userId);
     }
 
     @Test
-    @DisplayName("Test login")
-    void should_login_return_login_response_with_new_refresh_token_by_login_request() {
+    @DisplayName("Test login without roles")
+    void should_login_return_login_response_without_role_by_login_request() {
         UserLoginRequest loginRequest = new UserLoginRequest();
         loginRequest.setUsernameOrEmail("someValue");
         loginRequest.setPassword("someValue");
 
-        String token = "fake-jwt-token";
-        String refreshToken = "fake-refresh-token";
         Long userId = 1L;
+        AuthenticatedUser user = new AuthenticatedUser(loginRequest.getUsernameOrEmail(), "", List.of(), userId,
+                "someUsername");
 
-        Role role = new Role();
-        role.setId(1L);
-        role.setName("ROLE_USER");
-
-        Set<Role> roles = new HashSet<Role>();
-        roles.add(role);
-
-        User user = new User();
-        user.setId(userId);
-        user.setUsername(loginRequest.getUsernameOrEmail());
-        user.setRoles(roles);
-
-        RefreshToken refreshTokenObj = new RefreshToken();
-        refreshTokenObj.setRefreshToken(refreshToken);
-        refreshTokenObj.setUser(user);
-
-        when(tokenProvider.generateToken(loginRequest.getUsernameOrEmail())).thenReturn(token);
-        when(userService.findByUsernameOrEmail(
-                loginRequest.getUsernameOrEmail(), loginRequest.getUsernameOrEmail()))
-                .thenReturn(Optional.of(user));
-        when(refreshTokenService.getRefreshTokenByUserId(userId)).thenReturn(null);
-        when(refreshTokenService.generateRefreshToken(userId)).thenReturn(refreshTokenObj);
+        when(authenticationManager.authenticate(any()))
+                .thenReturn(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        when(tokenProvider.generateToken("someUsername", userId, List.of()))
+                .thenReturn("fake-jwt-token");
+        when(refreshTokenService.getOrCreateRefreshToken(userId, "someUsername", List.of()))
+                .thenReturn("fake-refresh-token");
 
         UserLoginResponse result = cut.login(loginRequest);
 
         assertNotNull(result);
-        assertEquals(token, result.getAccessToken());
-        assertEquals("ROLE_USER", result.getRole());
+        assertNull(result.getRole());
         assertEquals(userId, result.getUserId());
-        assertEquals(refreshToken, result.getRefreshToken());
-
-        verify(tokenProvider).generateToken(loginRequest.getUsernameOrEmail());
-        verify(userService).findByUsernameOrEmail(
-                loginRequest.getUsernameOrEmail(), loginRequest.getUsernameOrEmail());
-        verify(refreshTokenService).getRefreshTokenByUserId(userId);
-        verify(refreshTokenService).generateRefreshToken(userId);
-
+        assertEquals("fake-refresh-token", result.getRefreshToken());
     }
 
     @Test
@@ -306,16 +380,14 @@ public class AuthServiceTest {
         loginRequest.setUsernameOrEmail("someValue");
         loginRequest.setPassword("someValue");
 
-        when(userService.findByUsernameOrEmail(loginRequest.getUsernameOrEmail(), loginRequest.getUsernameOrEmail()))
-                .thenReturn(Optional.empty());
+        when(authenticationManager.authenticate(any()))
+                .thenReturn(new UsernamePasswordAuthenticationToken(loginRequest.getUsernameOrEmail(), null));
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> {
             cut.login(loginRequest);
         });
 
         assertEquals("user not found with username or email ->" + loginRequest.getUsernameOrEmail(), ex.getMessage());
-
-        verify(userService).findByUsernameOrEmail(loginRequest.getUsernameOrEmail(), loginRequest.getUsernameOrEmail());
     }
 
 }
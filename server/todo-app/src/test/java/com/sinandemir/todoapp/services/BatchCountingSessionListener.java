@@ -0,0 +1,30 @@
+package com.sinandemir.todoapp.services;
+
+import org.hibernate.SessionEventListener;
+
+// registered through hibernate.session.events.auto; counts on threads that called start
+public class BatchCountingSessionListener implements SessionEventListener {
+
+    static final String PROPERTY = "spring.jpa.properties.hibernate.session.events.auto="
+            + "com.sinandemir.todoapp.services.BatchCountingSessionListener";
+
+    private static final ThreadLocal<int[]> BATCHES = new ThreadLocal<>();
+
+    static void start() {
+        BATCHES.set(new int[1]);
+    }
+
+    static int stop() {
+        int[] batches = BATCHES.get();
+        BATCHES.remove();
+        return batches == null ? 0 : batches[0];
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        int[] batches = BATCHES.get();
+        if (batches != null) {
+            batches[0]++;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sinandemir.todoapp.repositories.RefreshTokenRepository;
+
+@SpringBootTest
+public class RefreshTokenPurgeServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepos;
+
+    @Mock
+    private RefreshTokenIndex refreshTokenIndex;
+
+    @InjectMocks
+    private RefreshTokenPurgeService cut;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(cut, "batchSize", 2);
+        ReflectionTestUtils.setField(cut, "pauseMillis", 0L);
+    }
+
+    @Test
+    @DisplayName("Test purgeExpiredRefreshTokens deletes in keyset batches")
+    void should_purge_expired_refresh_tokens_in_batches() {
+        when(refreshTokenRepos.findExpiredIdsAfter(eq(0L), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L));
+        when(refreshTokenRepos.findExpiredIdsAfter(eq(2L), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(5L));
+        when(refreshTokenRepos.deleteExpiredByIdIn(eq(List.of(1L, 2L)), any(Instant.class))).thenReturn(2);
+        when(refreshTokenRepos.deleteExpiredByIdIn(eq(List.of(5L)), any(Instant.class))).thenReturn(1);
+
+        long result = cut.purgeExpiredRefreshTokens();
+
+        assertEquals(3, result);
+        assertEquals(3, cut.getLastPurgedCount());
+
+        verify(refreshTokenRepos).deleteExpiredByIdIn(eq(List.of(1L, 2L)), any(Instant.class));
+        verify(refreshTokenRepos).deleteExpiredByIdIn(eq(List.of(5L)), any(Instant.class));
+        verify(refreshTokenRepos, never()).findExpiredIdsAfter(eq(5L), any(Instant.class), any(Pageable.class));
+        verify(refreshTokenIndex).removeExpired(anyLong());
+    }
+
+    @Test
+    @DisplayName("Test purgeExpiredRefreshTokens with nothing to purge")
+    void should_purge_nothing_when_no_refresh_token_expired() {
+        when(refreshTokenRepos.findExpiredIdsAfter(eq(0L), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        long result = cut.purgeExpiredRefreshTokens();
+
+        assertEquals(0, result);
+        verify(refreshTokenRepos, never()).deleteExpiredByIdIn(any(), any());
+    }
+
+    @Test
+    @DisplayName("Test purgeExpiredRefreshTokens deletes with the instant it selected with")
+    void should_not_count_rows_revived_between_select_and_delete() {
+        when(refreshTokenRepos.findExpiredIdsAfter(eq(0L), any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(1L));
+        // the row was revived by a login after the select, so the expiry re-check keeps it
+        when(refreshTokenRepos.deleteExpiredByIdIn(eq(List.of(1L)), any(Instant.class))).thenReturn(0);
+
+        long result = cut.purgeExpiredRefreshTokens();
+
+        assertEquals(0, result);
+        ArgumentCaptor<Instant> selectedAt = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> deletedAt = ArgumentCaptor.forClass(Instant.class);
+        verify(refreshTokenRepos).findExpiredIdsAfter(eq(0L), selectedAt.capture(), any(Pageable.class));
+        verify(refreshTokenRepos).deleteExpiredByIdIn(eq(List.of(1L)), deletedAt.capture());
+        assertEquals(selectedAt.getValue(), deletedAt.getValue());
+    }
+}
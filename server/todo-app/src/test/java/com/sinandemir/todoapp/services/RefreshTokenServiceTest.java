@@ -1,13 +1,18 @@
 package com.sinandemir.todoapp.services;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -17,12 +22,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.sinandemir.todoapp.entities.RefreshToken;
-import com.sinandemir.todoapp.entities.User;
+import com.sinandemir.todoapp.exceptions.RefreshTokenExpiredException;
 import com.sinandemir.todoapp.exceptions.ResourceNotFoundException;
 import com.sinandemir.todoapp.repositories.RefreshTokenRepository;
 import com.sinandemir.todoapp.security.JwtTokenProvider;
+import com.sinandemir.todoapp.security.TokenHasher;
+import com.sinandemir.todoapp.services.RefreshTokenIndex.IndexedRefreshToken;
 
 @SpringBootTest
 public class RefreshTokenServiceTest {
@@ -39,57 +47,28 @@ public class RefreshTokenServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private RefreshTokenIndex refreshTokenIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
     }
 
-    @Test
-    @DisplayName("Test getRefreshTokenByUserId")
-    void should_get_refresh_token_by_user_id() {
-        Long userId = 1L;
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setId(1L);
-
-        when(refreshTokenRepos.findByUserId(userId)).thenReturn(Optional.of(refreshToken));
-
-        RefreshToken result = cut.getRefreshTokenByUserId(userId);
-
-        assertNotNull(result);
-        assertEquals(refreshToken.getId(), result.getId());
-
-        verify(refreshTokenRepos).findByUserId(userId);
-    }
-
-    @Test
-    @DisplayName("Test getRefreshTokenByUserId should return null")
-    void get_refresh_token_by_user_id_should_return_null() {
-        Long userId = 1L;
-
-        when(refreshTokenRepos.findByUserId(userId)).thenReturn(Optional.empty());
-
-        RefreshToken result = cut.getRefreshTokenByUserId(userId);
-
-        assertNull(result);
-        verify(refreshTokenRepos).findByUserId(userId);
-    }
-
     @Test
     @DisplayName("Test deleteRefreshTokenByRefreshToken")
     void should_delete_refresh_token_by_refresh_token() {
         String fakeRefreshToken = "fake-refresh-token";
+        byte[] fakeRefreshTokenHash = TokenHasher.sha256(fakeRefreshToken);
 
-        RefreshToken token = new RefreshToken();
-        token.setId(1L);
-
-        when(refreshTokenRepos.findByRefreshToken(fakeRefreshToken)).thenReturn(Optional.of(token));
-
-        doNothing().when(refreshTokenRepos).deleteById(token.getId());
+        when(refreshTokenRepos.deleteByRefreshTokenHash(fakeRefreshTokenHash)).thenReturn(1);
 
         cut.deleteRefreshTokenByRefreshToken(fakeRefreshToken);
 
-        verify(refreshTokenRepos).findByRefreshToken(fakeRefreshToken);
-        verify(refreshTokenRepos).deleteById(token.getId());
+        verify(refreshTokenRepos).deleteByRefreshTokenHash(fakeRefreshTokenHash);
 
     }
 
@@ -98,7 +77,7 @@ public class RefreshTokenServiceTest {
     void delete_refresh_token_by_refresh_token_should_throws_an_exception() {
         String fakeRefreshToken = "fake-refresh-token";
 
-        when(refreshTokenRepos.findByRefreshToken(fakeRefreshToken)).thenReturn(Optional.empty());
+        when(refreshTokenRepos.deleteByRefreshTokenHash(TokenHasher.sha256(fakeRefreshToken))).thenReturn(0);
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> {
             cut.deleteRefreshTokenByRefreshToken(fakeRefreshToken);
@@ -108,45 +87,93 @@ public class RefreshTokenServiceTest {
     }
 
     @Test
-    @DisplayName("Test generateRefreshToken")
-    void should_generate_refresh_token_by_user_id() {
+    @DisplayName("Test getOrCreateRefreshToken")
+    void should_get_or_create_refresh_token_with_one_upsert() {
+        Long userId = 1L;
+
+        when(tokenProvider.generateRefreshToken(userId)).thenReturn("fake-refresh-token");
+        when(tokenProvider.getRefreshTokenExpirationMillis()).thenReturn(60000L);
+        when(refreshTokenRepos.upsertRefreshToken(eq(userId), eq("fake-refresh-token"), any(byte[].class),
+                any(Instant.class), any(Instant.class))).thenReturn(Optional.of("existing-refresh-token"));
 
+        String result = cut.getOrCreateRefreshToken(userId, "someValue", List.of("ROLE_USER"));
+
+        assertEquals("existing-refresh-token", result);
+
+        verify(refreshTokenRepos).upsertRefreshToken(eq(userId), eq("fake-refresh-token"), any(byte[].class),
+                any(Instant.class), any(Instant.class));
+        verify(refreshTokenRepos, never()).save(any());
+        verify(refreshTokenIndex, never()).put(any(), any());
+    }
+
+    @Test
+    @DisplayName("Test getOrCreateRefreshToken retries the upsert once when a concurrent login won the insert")
+    void should_retry_upsert_when_first_returns_nothing() {
         Long userId = 1L;
-        User user = new User();
-        user.setId(userId);
 
-        when(userService.findById(userId)).thenReturn(Optional.of(user));
         when(tokenProvider.generateRefreshToken(userId)).thenReturn("fake-refresh-token");
+        when(tokenProvider.getRefreshTokenExpirationMillis()).thenReturn(60000L);
+        when(refreshTokenRepos.upsertRefreshToken(eq(userId), eq("fake-refresh-token"), any(byte[].class),
+                any(Instant.class), any(Instant.class))).thenReturn(Optional.empty(),
+                        Optional.of("concurrent-refresh-token"));
+
+        String result = cut.getOrCreateRefreshToken(userId, "someValue", List.of("ROLE_USER"));
 
-        RefreshToken savedToken = new RefreshToken();
-        savedToken.setRefreshToken("fake-refresh-token");
-        savedToken.setUser(user);
-        when(refreshTokenRepos.save(savedToken)).thenReturn(savedToken);
+        assertEquals("concurrent-refresh-token", result);
+
+        verify(refreshTokenRepos, times(2)).upsertRefreshToken(eq(userId), eq("fake-refresh-token"),
+                eq(TokenHasher.sha256("fake-refresh-token")), any(Instant.class), any(Instant.class));
+        verify(refreshTokenRepos, never()).save(any());
+    }
 
-        RefreshToken result = cut.generateRefreshToken(userId);
+    @Test
+    @DisplayName("Test resolveOpaqueRefreshToken")
+    void should_resolve_opaque_refresh_token_from_index() {
+        String fakeRefreshToken = "fake-refresh-token";
+        IndexedRefreshToken indexedToken = new IndexedRefreshToken(1L, "someValue", List.of("ROLE_USER"),
+                System.currentTimeMillis() + 60000L);
 
-        assertNotNull(result);
-        assertEquals(savedToken, result);
-        assertEquals(user.getId(), savedToken.getUser().getId());
-        assertEquals(savedToken.getRefreshToken(), result.getRefreshToken());
+        when(refreshTokenIndex.get(fakeRefreshToken)).thenReturn(indexedToken);
 
-        verify(userService).findById(userId);
-        verify(tokenProvider).generateRefreshToken(userId);
-        verify(refreshTokenRepos).save(savedToken);
+        IndexedRefreshToken result = cut.resolveOpaqueRefreshToken(fakeRefreshToken);
 
+        assertEquals(indexedToken, result);
+        verify(refreshTokenIndex).get(fakeRefreshToken);
     }
 
     @Test
-    @DisplayName("Test generateRefreshToken should return null")
-    void generate_refresh_token_by_user_id_should_return_null() {
-        Long userId = 1L;
+    @DisplayName("Test resolveOpaqueRefreshToken throws an exception when expired")
+    void resolve_opaque_refresh_token_should_evict_and_throw_when_expired() {
+        String fakeRefreshToken = "fake-refresh-token";
+        IndexedRefreshToken indexedToken = new IndexedRefreshToken(1L, "someValue", List.of("ROLE_USER"),
+                System.currentTimeMillis() - 1L);
 
-        when(userService.findById(userId)).thenReturn(Optional.empty());
+        when(refreshTokenIndex.get(fakeRefreshToken)).thenReturn(indexedToken);
 
-        RefreshToken result = cut.generateRefreshToken(userId);
+        assertThrows(RefreshTokenExpiredException.class, () -> {
+            cut.resolveOpaqueRefreshToken(fakeRefreshToken);
+        });
 
-        assertNull(result);
-        verify(userService).findById(userId);
+        verify(refreshTokenIndex).remove(fakeRefreshToken);
+        verify(refreshTokenRepos).deleteByRefreshTokenHash(TokenHasher.sha256(fakeRefreshToken));
     }
 
+    @Test
+    @DisplayName("Test backfillRefreshTokens fills each batch inside its own transaction")
+    void should_backfill_each_batch_in_one_transaction() {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setRefreshToken("legacy-refresh-token");
+
+        when(refreshTokenRepos.findTop500ByRefreshTokenHashIsNullOrExpiresAtIsNull())
+                .thenReturn(List.of(refreshToken)).thenReturn(List.of());
+        when(tokenProvider.getExpiration("legacy-refresh-token")).thenReturn(new Date(60000L));
+
+        cut.backfillRefreshTokens();
+
+        assertArrayEquals(TokenHasher.sha256("legacy-refresh-token"), refreshToken.getRefreshTokenHash());
+        assertEquals(Instant.ofEpochMilli(60000L), refreshToken.getExpiresAt());
+        // managed rows are flushed by the commit, not merged one by one
+        verify(transactionManager, times(2)).commit(any());
+        verify(refreshTokenRepos, never()).saveAll(any());
+    }
 }
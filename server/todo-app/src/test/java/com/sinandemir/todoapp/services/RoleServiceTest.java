@@ -2,9 +2,14 @@ package com.sinandemir.todoapp.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
+
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -28,17 +33,45 @@ public class RoleServiceTest {
     @DisplayName("Test findByName")
     void should_find_by_name_with_role_name(){
         String roleName = "FAKE_ROLE";
-        Role role = new Role();
-        role.setName(roleName);
+        Role role = new Role(1L, roleName);
 
-        when(roleRepos.findByName(roleName)).thenReturn(role);
+        when(roleRepos.findAll()).thenReturn(List.of(role));
 
         Role result = cut.findByName(roleName);
 
         assertNotNull(result);
+        assertEquals(1L, result.getId());
         assertEquals(roleName, result.getName());
 
-        verify(roleRepos).findByName(roleName);
+        verify(roleRepos).findAll();
+    }
+
+    @Test
+    @DisplayName("Test findByName serves repeated lookups from the registry")
+    void should_find_by_name_without_querying_after_load(){
+        when(roleRepos.findAll()).thenReturn(List.of(new Role(1L, "FAKE_ROLE")));
+
+        cut.findByName("FAKE_ROLE");
+        cut.findByName("FAKE_ROLE");
+        Role result = cut.findByName("OTHER_ROLE");
+
+        assertNull(result);
+
+        verify(roleRepos, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Test refresh")
+    void should_refresh_reload_roles(){
+        when(roleRepos.findAll()).thenReturn(List.of(new Role(1L, "FAKE_ROLE")))
+                .thenReturn(List.of(new Role(1L, "FAKE_ROLE"), new Role(2L, "OTHER_ROLE")));
+
+        cut.refresh();
+        cut.refresh();
+
+        assertEquals(2, cut.size());
+        assertEquals(2L, cut.findByName("OTHER_ROLE").getId());
+        assertSame(cut.getAuthority("OTHER_ROLE"), cut.getAuthority("OTHER_ROLE"));
     }
     
 }
@@ -0,0 +1,65 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.sinandemir.todoapp.Benchmarks;
+import com.sinandemir.todoapp.dto.requests.TodoRequest;
+
+// mvn test -Pbenchmark -Dtest=TodoBatchThroughputBenchmark, against the configured database. no outer transaction:
+// every call commits, as it does behind the endpoints
+@Tag("benchmark")
+@SpringBootTest
+public class TodoBatchThroughputBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long lastIdBefore;
+
+    @BeforeEach
+    void setup() {
+        lastIdBefore = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from todos", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<Long> createdIds = jdbcTemplate.queryForList("select id from todos where id > ?", Long.class,
+                lastIdBefore);
+        for (int from = 0; from < createdIds.size(); from += BATCH_SIZE) {
+            todoService.deleteTodos(createdIds.subList(from, Math.min(from + BATCH_SIZE, createdIds.size())));
+        }
+    }
+
+    @Test
+    @DisplayName("Benchmark inserting todos one request at a time against one batch request")
+    void single_and_batch_inserts() {
+        List<TodoRequest> batch = IntStream.range(0, BATCH_SIZE)
+                .mapToObj((i) -> new TodoRequest("batch " + i, "throughput", i % 2 == 0)).toList();
+
+        Benchmarks.Result single = Benchmarks.measure("addTodo, per todo", 2, 10, 200,
+                (i) -> todoService.addTodo(new TodoRequest("single " + i, "throughput", i % 2 == 0)));
+        Benchmarks.Result batched = Benchmarks.measure("addTodos, per " + BATCH_SIZE + "-todo batch", 1, 5, 1,
+                (i) -> todoService.addTodos(batch));
+        System.out.printf("addTodo %,.0f todos/s, addTodos %,.0f todos/s%n", 1e9 / single.getP50Nanos(),
+                1e9 * BATCH_SIZE / batched.getP50Nanos());
+
+        assertTrue(batched.getP50Nanos() / BATCH_SIZE < single.getP50Nanos());
+    }
+}
@@ -0,0 +1,71 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.sinandemir.todoapp.dto.responses.TodoCountsResponse;
+import com.sinandemir.todoapp.repositories.TodoCountsView;
+import com.sinandemir.todoapp.repositories.TodoRepository;
+
+@SpringBootTest
+public class TodoCountersTest {
+
+    @Mock
+    private TodoRepository todoRepos;
+
+    @InjectMocks
+    private TodoCounters cut;
+
+    @Test
+    @DisplayName("Test counters follow incremental changes")
+    void should_track_total_completed_and_open_counts() {
+        cut.onAdded(false);
+        cut.onAdded(true);
+        cut.onAdded(false);
+        cut.onCompletedChanged(false, true);
+        cut.onCompletedChanged(true, true);
+        cut.onDeleted(true);
+
+        TodoCountsResponse result = cut.snapshot();
+
+        assertEquals(2, result.getTotal());
+        assertEquals(1, result.getCompleted());
+        assertEquals(1, result.getOpen());
+    }
+
+    @Test
+    @DisplayName("Test reconcile")
+    void should_reconcile_counters_with_the_table() {
+        cut.onAdded(false);
+
+        when(todoRepos.countTodos()).thenReturn(counts(5L, 2L));
+
+        cut.reconcile();
+
+        TodoCountsResponse result = cut.snapshot();
+
+        assertEquals(5, result.getTotal());
+        assertEquals(2, result.getCompleted());
+        assertEquals(3, result.getOpen());
+    }
+
+    private TodoCountsView counts(Long total, Long completed) {
+        return new TodoCountsView() {
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+
+            @Override
+            public Long getCompleted() {
+                return completed;
+            }
+        };
+    }
+}
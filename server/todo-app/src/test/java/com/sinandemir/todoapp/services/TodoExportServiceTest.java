@@ -0,0 +1,91 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sinandemir.todoapp.dto.requests.TodoRequest;
+import com.sinandemir.todoapp.dto.responses.TodoResponse;
+import com.sinandemir.todoapp.exceptions.TodoGlobalException;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@Transactional
+public class TodoExportServiceTest {
+
+    private static final String MARKER = "export-marker";
+
+    @Autowired
+    private TodoExportService todoExportService;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private TodoResponse savedTodo;
+
+    @BeforeEach
+    void setup() {
+        savedTodo = todoService.addTodo(new TodoRequest(MARKER + ", \"quoted\"", "line one\nline two", true));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Test exportTodos writes one json object per line")
+    void should_export_todos_as_ndjson_without_keeping_entities() throws Exception {
+        List<String> lines = export(TodoExportService.NDJSON).lines().filter((line) -> line.contains(MARKER)).toList();
+
+        assertEquals(1, lines.size());
+        TodoResponse exportedTodo = objectMapper.readValue(lines.get(0), TodoResponse.class);
+        assertEquals(savedTodo.getId(), exportedTodo.getId());
+        assertEquals(savedTodo.getTitle(), exportedTodo.getTitle());
+        assertEquals(savedTodo.getDescription(), exportedTodo.getDescription());
+        assertTrue(exportedTodo.isCompleted());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    @DisplayName("Test exportTodos writes escaped csv rows")
+    void should_export_todos_as_csv() throws Exception {
+        String csv = export(TodoExportService.CSV);
+
+        assertTrue(csv.startsWith("id,title,description,completed\n"));
+        assertTrue(csv.contains(savedTodo.getId() + ",\"" + MARKER + ", \"\"quoted\"\"\",\"line one\nline two\",true\n"));
+    }
+
+    @Test
+    @DisplayName("Test exportTodos rejects unsupported formats")
+    void should_reject_unsupported_export_format() {
+        TodoGlobalException ex = assertThrows(TodoGlobalException.class, () -> {
+            todoExportService.getMediaType("xml");
+        });
+
+        assertEquals("export format is not supported!", ex.getMessage());
+    }
+
+    private String export(String format) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        todoExportService.exportTodos(format, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,124 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.sinandemir.todoapp.dto.responses.TodoImportResponse;
+import com.sinandemir.todoapp.repositories.TodoRepository;
+
+// no outer transaction: every chunk has to commit on its own
+@SpringBootTest(properties = "app.todo-import-max-line-length=1024")
+public class TodoImportServiceTest {
+
+    private static final int ROWS = 2500;
+
+    @Autowired
+    private TodoImportService todoImportService;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepos;
+
+    @Autowired
+    private TodoCounters todoCounters;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long lastIdBefore;
+
+    @BeforeEach
+    void setup() {
+        lastIdBefore = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from todos", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<Long> importedIds = jdbcTemplate.queryForList("select id from todos where id > ?", Long.class,
+                lastIdBefore);
+        if (!importedIds.isEmpty()) {
+            todoService.deleteTodos(importedIds);
+        }
+    }
+
+    @Test
+    @DisplayName("Test importTodos commits valid lines in chunks and reports invalid ones")
+    void should_import_valid_lines_and_report_invalid_lines() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            body.append("{\"title\":\"import ").append(i).append("\",\"description\":\"import\",\"completed\":")
+                    .append(i % 2 == 0).append("}\n");
+        }
+        body.append("\n");
+        body.append("{\"title\":\"missing description\"}\n");
+        body.append("{not json\n");
+        long todosBefore = todoRepos.count();
+        long countedBefore = todoCounters.getTotal();
+
+        TodoImportResponse result = todoImportService
+                .importTodos(new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(ROWS, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(ROWS + 2, result.getErrors().get(0).getIndex());
+        assertEquals("title and description are required.", result.getErrors().get(0).getMessage());
+        assertEquals(ROWS + 3, result.getErrors().get(1).getIndex());
+        assertEquals("line is not a valid todo.", result.getErrors().get(1).getMessage());
+        assertEquals(todosBefore + ROWS, todoRepos.count());
+        assertEquals(countedBefore + ROWS, todoCounters.getTotal());
+    }
+
+    @Test
+    @DisplayName("Test importTodos rejects an overlong line and keeps reading after it")
+    void should_reject_overlong_line_and_continue() throws Exception {
+        String body = "{\"title\":\"" + "x".repeat(2000) + "\",\"description\":\"long\"}\r\n"
+                + "{\"title\":\"short\",\"description\":\"short\"}\r\n"
+                + "{\"title\":\"last\",\"description\":\"no newline\"}";
+
+        TodoImportResponse result = todoImportService
+                .importTodos(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertEquals("line is longer than 1024 characters.", result.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    @DisplayName("Test importTodos reports a title longer than the column and keeps importing")
+    void should_report_overlong_title_and_import_the_rest() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            body.append("{\"title\":\"before ").append(i).append("\",\"description\":\"import\"}\n");
+        }
+        body.append("{\"title\":\"").append("t".repeat(256)).append("\",\"description\":\"import\"}\n");
+        body.append("{\"title\":\"").append("t".repeat(255)).append("\",\"description\":\"import\"}\n");
+        for (int i = 0; i < 5; i++) {
+            body.append("{\"title\":\"after ").append(i).append("\",\"description\":\"import\"}\n");
+        }
+
+        TodoImportResponse result = todoImportService
+                .importTodos(new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(11, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(6, result.getErrors().get(0).getIndex());
+        assertEquals("title and description must be at most 255 characters.",
+                result.getErrors().get(0).getMessage());
+        assertEquals(11, jdbcTemplate.queryForObject("select count(*) from todos where id > ?", Long.class,
+                lastIdBefore));
+    }
+}
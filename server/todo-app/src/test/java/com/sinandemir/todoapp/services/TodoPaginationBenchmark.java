@@ -0,0 +1,85 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sinandemir.todoapp.Benchmarks;
+import com.sinandemir.todoapp.entities.Todo;
+import com.sinandemir.todoapp.repositories.TodoRepository;
+
+// mvn test -Pbenchmark -Dtest=TodoPaginationBenchmark, against the configured database
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+public class TodoPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_PAGE = 10_000;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepos;
+
+    @Autowired
+    private TodoCounters todoCounters;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.update("insert into todos (id, title, description, completed) "
+                + "select nextval('todos_seq'), 'page ' || n, 'page', n % 10 = 0 from generate_series(1, ?) n",
+                DEEP_PAGE * PAGE_SIZE);
+        jdbcTemplate.execute("analyze todos");
+        todoCounters.reconcile();
+    }
+
+    @AfterTransaction
+    void reconcileAfterRollback() {
+        todoCounters.reconcile();
+    }
+
+    @Test
+    @DisplayName("Benchmark offset and keyset listing at page 1 and page 10,000")
+    void offset_and_keyset_listing_by_depth() {
+        measure(1);
+        Benchmarks.Result[] deep = measure(DEEP_PAGE);
+
+        // offset pages scan every row before them, keyset pages seek to the cursor
+        assertTrue(deep[2].getP50Nanos() < deep[1].getP50Nanos());
+    }
+
+    // page is one-based, like the page numbers clients see
+    private Benchmarks.Result[] measure(int page) {
+        // the keyset page that starts where the offset page does
+        Long lastIdBefore = page == 1 ? null
+                : jdbcTemplate.queryForObject("select id from todos order by id offset ? limit 1", Long.class,
+                        (page - 1) * PAGE_SIZE - 1);
+        String after = lastIdBefore == null ? null
+                : TodoCursor.after(new Todo(lastIdBefore, null, null, false), "id", false).encode();
+        PageRequest pageRequest = PageRequest.of(page - 1, PAGE_SIZE);
+        assertEquals(PAGE_SIZE, todoService.getTodosWithCursor(after, PAGE_SIZE, "id", "asc").getSize());
+
+        return new Benchmarks.Result[] {
+                Benchmarks.measure("findAll(Pageable) with count(*), page " + page, 5, 30, 1,
+                        (i) -> todoRepos.findAll(pageRequest)),
+                Benchmarks.measure("getAllTodosWithPagination, page " + page, 5, 30, 1,
+                        (i) -> todoService.getAllTodosWithPagination(pageRequest, null)),
+                Benchmarks.measure("getTodosWithCursor, page " + page, 5, 30, 1,
+                        (i) -> todoService.getTodosWithCursor(after, PAGE_SIZE, "id", "asc")) };
+    }
+}
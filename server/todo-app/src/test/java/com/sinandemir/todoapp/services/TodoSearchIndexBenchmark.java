@@ -0,0 +1,109 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.sinandemir.todoapp.Benchmarks;
+import com.sinandemir.todoapp.entities.Todo;
+
+// mvn test -Pbenchmark -Dtest=TodoSearchIndexBenchmark
+@Tag("benchmark")
+public class TodoSearchIndexBenchmark {
+
+    private static final int TODOS = 1_000_000;
+    private static final int VOCABULARY = 50_000;
+    private static final int TITLE_WORDS = 3;
+    private static final int DESCRIPTION_WORDS = 8;
+    private static final int IMPORT_CHUNK = 1000;
+
+    private final Random random = new Random(42);
+
+    @Test
+    @DisplayName("Benchmark query latency at 1M todos and write latency while compacting")
+    void query_and_write_latency_at_one_million_todos() throws Exception {
+        TodoSearchIndex index = new TodoSearchIndex(null, null);
+        long buildStart = System.nanoTime();
+        List<Todo> chunk = new ArrayList<>(IMPORT_CHUNK);
+        for (long todoId = 1; todoId <= TODOS; todoId++) {
+            chunk.add(new Todo(todoId, words(TITLE_WORDS), words(DESCRIPTION_WORDS), false));
+            if (chunk.size() == IMPORT_CHUNK) {
+                index.indexAll(chunk);
+                chunk.clear();
+            }
+        }
+        System.out.printf("indexed %,d todos in %,d ms, about %,d MB of heap in use%n", index.size(),
+                (System.nanoTime() - buildStart) / 1_000_000, usedHeapMegabytes());
+
+        String[] common = queries(200, 10, "");
+        String[] rare = queries(200, VOCABULARY / 2, "");
+        String[] pairs = queries(200, 1000, " " + word(5));
+        Benchmarks.measure("search, one common term", 50, 200, 1, (i) -> index.search(common[i % 200], 20));
+        Benchmarks.measure("search, one rare term", 50, 200, 1, (i) -> index.search(rare[i % 200], 20));
+        Benchmarks.measure("search, two terms", 50, 200, 1, (i) -> index.search(pairs[i % 200], 20));
+        Benchmarks.measure("search, two-character prefix", 50, 200, 1,
+                (i) -> index.search("w" + Integer.toString(i % 36, 36), 20));
+
+        Benchmarks.measure("index one todo, no compaction", 1000, 5000, 1,
+                (i) -> {
+                    index.index((long) (i % TODOS) + 1, words(TITLE_WORDS), words(DESCRIPTION_WORDS));
+                    return Boolean.TRUE;
+                });
+
+        List<Long> removed = new ArrayList<>();
+        for (long todoId = 1; todoId <= TODOS * 6L / 10; todoId++) {
+            removed.add(todoId);
+        }
+        index.removeAll(removed);
+        long[] compactionMillis = new long[1];
+        Thread compaction = new Thread(() -> {
+            long start = System.nanoTime();
+            index.compactIfNeeded();
+            compactionMillis[0] = (System.nanoTime() - start) / 1_000_000;
+        });
+        compaction.start();
+        Benchmarks.measure("index one todo while compaction runs", 0, 5000, 1,
+                (i) -> {
+                    index.index((long) TODOS - i, words(TITLE_WORDS), words(DESCRIPTION_WORDS));
+                    return Boolean.TRUE;
+                });
+        compaction.join();
+        System.out.printf("compacted %,d deleted todos away in %,d ms%n", removed.size(), compactionMillis[0]);
+
+        assertEquals(TODOS - removed.size(), index.size());
+    }
+
+    // skewed towards low word numbers, so a few terms are common and most are rare
+    private String words(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            double skew = random.nextDouble();
+            text.append(word((int) (VOCABULARY * skew * skew * skew))).append(' ');
+        }
+        return text.toString();
+    }
+
+    private String[] queries(int count, int firstWord, String suffix) {
+        String[] queries = new String[count];
+        for (int i = 0; i < count; i++) {
+            queries[i] = word(firstWord + i) + suffix;
+        }
+        return queries;
+    }
+
+    private static String word(int number) {
+        return "w" + Integer.toString(number, 36);
+    }
+
+    private static long usedHeapMegabytes() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+    }
+}
@@ -0,0 +1,221 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sinandemir.todoapp.dto.responses.TodoImportResponse;
+import com.sinandemir.todoapp.entities.Todo;
+import com.sinandemir.todoapp.repositories.TodoRepository;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+public class TodoSearchIndexTest {
+
+    @Mock
+    private TodoRepository todoRepos;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private TodoSearchIndex cut;
+
+    @Test
+    @DisplayName("Test tokenize")
+    void should_tokenize_lower_cased_words_and_skip_single_characters() {
+        assertEquals(List.of("buy", "milk", "2l", "süt"), TodoSearchIndex.tokenize("Buy MILK, 2L & a süt!"));
+    }
+
+    @Test
+    @DisplayName("Test search ranks title matches and exact terms first")
+    void should_rank_title_and_exact_matches_above_description_and_prefix_matches() {
+        cut.index(1L, "groceries", "plan the week");
+        cut.index(2L, "weekly plan", "groceries");
+        cut.index(3L, "planning", "office");
+        cut.index(4L, "laundry", "nothing to see");
+
+        assertEquals(List.of(2L, 3L, 1L), cut.search("plan", 10));
+        assertEquals(List.of(1L, 2L), cut.search("gro pla", 10));
+        assertEquals(List.of(2L), cut.search("plan", 1));
+        assertEquals(List.of(), cut.search("plan laundry", 10));
+        assertEquals(List.of(), cut.search("a", 10));
+    }
+
+    @Test
+    @DisplayName("Test index replaces and remove drops a todo")
+    void should_replace_terms_on_update_and_forget_removed_todos() {
+        cut.index(1L, "old title", "description");
+        cut.index(1L, "new title", "description");
+        cut.indexAll(List.of(new Todo(2L, "other title", "description", false)));
+
+        assertEquals(List.of(), cut.search("old", 10));
+        assertEquals(List.of(1L), cut.search("new", 10));
+
+        cut.remove(1L);
+
+        assertEquals(List.of(2L), cut.search("title", 10));
+        assertEquals(1, cut.size());
+    }
+
+    @Test
+    @DisplayName("Test search stays correct after compaction")
+    void should_compact_deleted_todos_and_keep_remaining_ones_searchable() {
+        List<Long> removedTodoIds = new ArrayList<>();
+        for (long todoId = 1; todoId <= 3000; todoId++) {
+            cut.index(todoId, todoId % 2 == 0 ? "even task" : "odd task", "shared");
+            if (todoId > 10) {
+                removedTodoIds.add(todoId);
+            }
+        }
+
+        cut.removeAll(removedTodoIds);
+
+        assertEquals(3000, cut.documentCount());
+
+        cut.compactIfNeeded();
+
+        assertEquals(10, cut.documentCount());
+        assertEquals(10, cut.size());
+        assertEquals(List.of(2L, 4L, 6L, 8L, 10L), cut.search("even", 10));
+        assertEquals(List.of(1L, 3L, 5L, 7L, 9L), cut.search("od sha", 10));
+
+        cut.index(4L, "renamed", "shared");
+
+        assertEquals(List.of(2L, 6L, 8L, 10L), cut.search("even", 10));
+        assertEquals(List.of(4L), cut.search("renamed", 10));
+    }
+
+    @Test
+    @DisplayName("Test search narrows a rare token's candidates by looking them up in long postings")
+    void should_match_rare_token_against_common_token_postings() {
+        for (long todoId = 1; todoId <= 200; todoId++) {
+            cut.index(todoId, "common task", todoId % 50 == 0 ? "rare" : "plain");
+        }
+
+        assertEquals(List.of(50L, 100L, 150L, 200L), cut.search("rare common", 10));
+        assertEquals(List.of(50L, 100L), cut.search("com ta rare", 2));
+        assertEquals(List.of(), cut.search("rare missing", 10));
+    }
+
+    @Test
+    @DisplayName("Test rebuild keeps serving and replays writes made while it loads")
+    void should_replay_writes_made_during_rebuild() {
+        cut.index(9L, "stale entry", "");
+        Stream<Todo> todos = Stream.of(new Todo(1L, "alpha", "", false), new Todo(2L, "beta", "", false))
+                .peek((todo) -> {
+                    if (todo.getId() == 1L) {
+                        // runs while the stream is read: the lock must not be held
+                        assertEquals(List.of(9L), cut.search("stale", 10));
+                        cut.index(3L, "gamma", "");
+                        cut.remove(2L);
+                    }
+                });
+        when(todoRepos.streamAllDetached()).thenReturn(todos);
+
+        cut.rebuild();
+
+        assertEquals(List.of(1L), cut.search("alpha", 10));
+        assertEquals(List.of(), cut.search("beta", 10));
+        assertEquals(List.of(3L), cut.search("gamma", 10));
+        assertEquals(List.of(), cut.search("stale", 10));
+        assertEquals(2, cut.size());
+    }
+
+    @Test
+    @DisplayName("Test rebuild replays every chunk of an import made while it loads")
+    void should_replay_every_import_chunk_made_during_rebuild() {
+        AtomicLong nextTodoId = new AtomicLong(100);
+        when(todoRepos.saveAll(anyList())).thenAnswer((invocation) -> {
+            List<Todo> saved = invocation.getArgument(0);
+            saved.forEach((todo) -> todo.setId(nextTodoId.getAndIncrement()));
+            return saved;
+        });
+        TodoImportService todoImportService = new TodoImportService(todoRepos, new TodoCounters(todoRepos), cut,
+                entityManager, new ObjectMapper(), transactionManager);
+        ReflectionTestUtils.setField(todoImportService, "chunkSize", 2);
+        ReflectionTestUtils.setField(todoImportService, "maxErrors", 10);
+        ReflectionTestUtils.setField(todoImportService, "maxLineLength", 1024);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            body.append("{\"title\":\"imported ").append(i).append("\",\"description\":\"chunked\"}\n");
+        }
+
+        // the import reuses and clears its chunk list between chunks while the rebuild holds their writes
+        Stream<Todo> todos = Stream.of(new Todo(1L, "alpha", "", false)).peek((todo) -> {
+            try {
+                TodoImportResponse result = todoImportService.importTodos(
+                        new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+                assertEquals(5, result.getImported());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        when(todoRepos.streamAllDetached()).thenReturn(todos);
+
+        cut.rebuild();
+
+        assertEquals(List.of(100L, 101L, 102L, 103L, 104L), cut.search("chunked", 10));
+        assertEquals(List.of(1L), cut.search("alpha", 10));
+        assertEquals(6, cut.size());
+    }
+
+    @Test
+    @DisplayName("Test compaction keeps every write made while it copies")
+    void should_keep_writes_made_during_compaction() throws Exception {
+        List<Todo> todos = new ArrayList<>();
+        for (long todoId = 1; todoId <= 4000; todoId++) {
+            todos.add(new Todo(todoId, "drop", "", false));
+        }
+        cut.indexAll(todos);
+
+        Thread writer = new Thread(() -> {
+            for (long todoId = 1; todoId <= 4000; todoId++) {
+                if (todoId % 4 == 0) {
+                    cut.index(todoId, "keep", "");
+                } else {
+                    cut.remove(todoId);
+                }
+            }
+            for (long todoId = 4001; todoId <= 6000; todoId++) {
+                cut.index(todoId, "keep", "");
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            cut.compactIfNeeded();
+        }
+        writer.join();
+        cut.compactIfNeeded();
+
+        List<Long> keptTodoIds = new ArrayList<>();
+        for (long todoId = 4; todoId <= 6000; todoId += todoId < 4000 ? 4 : 1) {
+            keptTodoIds.add(todoId);
+        }
+        assertEquals(keptTodoIds, cut.search("keep", 10000));
+        assertEquals(List.of(), cut.search("drop", 10));
+        assertEquals(3000, cut.size());
+    }
+}
@@ -0,0 +1,129 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sinandemir.todoapp.dto.requests.TodoBatchUpdateRequest;
+import com.sinandemir.todoapp.dto.requests.TodoRequest;
+import com.sinandemir.todoapp.dto.responses.TodoBatchItemResponse;
+import com.sinandemir.todoapp.dto.responses.TodoBatchResponse;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        RecordingStatementInspector.PROPERTY, BatchCountingSessionListener.PROPERTY })
+@Transactional
+public class TodoServiceBatchTest {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int JDBC_BATCH_SIZE = 50;
+    private static final int SEQUENCE_ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Test addTodos inserts through JDBC batches")
+    void should_add_todos_with_batched_inserts() {
+        List<TodoRequest> todoRequests = IntStream.range(0, BATCH_SIZE)
+                .mapToObj((i) -> new TodoRequest("title " + i, "description " + i, i % 2 == 0))
+                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        todoRequests.add(new TodoRequest(null, "description", false));
+
+        RecordingStatementInspector.start();
+        BatchCountingSessionListener.start();
+        TodoBatchResponse result;
+        List<String> statements;
+        int insertBatches;
+        try {
+            result = todoService.addTodos(todoRequests);
+            entityManager.flush();
+        } finally {
+            insertBatches = BatchCountingSessionListener.stop();
+            statements = RecordingStatementInspector.stop();
+        }
+        long sequenceCalls = statements.stream().filter((sql) -> sql.contains("nextval('todos_seq')")).count();
+
+        assertEquals(BATCH_SIZE, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(TodoService.INVALID, result.getResults().get(BATCH_SIZE).getStatus());
+        assertEquals(BATCH_SIZE, statistics.getEntityInsertCount());
+        assertEquals(BATCH_SIZE / JDBC_BATCH_SIZE, insertBatches);
+        // one call per allocated block, plus one when an earlier test left a partly used block behind
+        assertTrue(sequenceCalls >= BATCH_SIZE / SEQUENCE_ALLOCATION_SIZE
+                && sequenceCalls <= BATCH_SIZE / SEQUENCE_ALLOCATION_SIZE + 1, "sequence calls: " + sequenceCalls);
+        // the batches reuse one prepared insert, and nothing else reaches the database
+        assertEquals(sequenceCalls + 1, statements.size(), statements.toString());
+    }
+
+    @Test
+    @DisplayName("Test updateTodos and deleteTodos report per-item results")
+    void should_update_and_delete_todos_in_batches() {
+        TodoBatchResponse created = todoService.addTodos(List.of(new TodoRequest("a", "a", false),
+                new TodoRequest("b", "b", false)));
+        List<Long> todoIds = created.getResults().stream().map(TodoBatchItemResponse::getId).toList();
+        entityManager.flush();
+        entityManager.clear();
+
+        TodoBatchResponse updated = todoService.updateTodos(List.of(
+                new TodoBatchUpdateRequest(todoIds.get(0), "a2", "a2", true),
+                new TodoBatchUpdateRequest(-1L, "x", "x", true)));
+        entityManager.flush();
+        entityManager.clear();
+
+        TodoBatchResponse deleted = todoService.deleteTodos(List.of(todoIds.get(0), todoIds.get(1), -1L));
+        entityManager.flush();
+
+        assertEquals(1, updated.getSucceeded());
+        assertEquals(TodoService.NOT_FOUND, updated.getResults().get(1).getStatus());
+        assertEquals(2, deleted.getSucceeded());
+        assertEquals(TodoService.NOT_FOUND, deleted.getResults().get(2).getStatus());
+    }
+
+    @Test
+    @DisplayName("Test addTodos and updateTodos report values longer than their columns per item")
+    void should_report_overlong_values_without_failing_the_batch() {
+        String tooLong = "x".repeat(256);
+        TodoBatchResponse created = todoService.addTodos(List.of(new TodoRequest("a", "a", false),
+                new TodoRequest(tooLong, "b", false), new TodoRequest("c", "x".repeat(255), false)));
+        entityManager.flush();
+        Long todoId = created.getResults().get(0).getId();
+
+        TodoBatchResponse updated = todoService.updateTodos(List.of(
+                new TodoBatchUpdateRequest(todoId, "a", tooLong, true),
+                new TodoBatchUpdateRequest(todoId, "a2", "a2", true)));
+        entityManager.flush();
+
+        assertEquals(2, created.getSucceeded());
+        assertEquals(TodoService.INVALID, created.getResults().get(1).getStatus());
+        assertEquals("title and description must be at most 255 characters.",
+                created.getResults().get(1).getMessage());
+        assertEquals(1, updated.getSucceeded());
+        assertEquals(TodoService.INVALID, updated.getResults().get(0).getStatus());
+        assertEquals(todoId, updated.getResults().get(0).getId());
+    }
+}
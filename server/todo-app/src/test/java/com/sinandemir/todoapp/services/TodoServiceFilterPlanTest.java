@@ -0,0 +1,95 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sinandemir.todoapp.dto.responses.TodoResponse;
+
+@SpringBootTest(properties = RecordingStatementInspector.PROPERTY)
+@Transactional
+public class TodoServiceFilterPlanTest {
+
+    private static final int ROWS = 20000;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoCounters todoCounters;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.update("insert into todos (id, title, description, completed) "
+                + "select nextval('todos_seq'), 'plan ' || n, 'plan', n % 10 = 0 from generate_series(1, ?) n", ROWS);
+        jdbcTemplate.execute("analyze todos");
+        // rows inserted through jdbc bypass the counters the page totals come from
+        todoCounters.reconcile();
+    }
+
+    @AfterTransaction
+    void reconcileAfterRollback() {
+        todoCounters.reconcile();
+    }
+
+    @Test
+    @DisplayName("Test the open and completed listings use their partial indexes")
+    void should_plan_filtered_listing_on_partial_indexes() {
+        String openPlan = explainListing(false);
+        String completedPlan = explainListing(true);
+
+        assertTrue(openPlan.contains("idx_todos_open_id"), openPlan);
+        assertTrue(completedPlan.contains("idx_todos_completed_id"), completedPlan);
+    }
+
+    @Test
+    @DisplayName("Test getAllTodosWithPagination filters by completed")
+    void should_list_only_todos_with_the_requested_status() {
+        Page<TodoResponse> openTodos = todoService.getAllTodosWithPagination(PageRequest.of(0, 50), false);
+        Page<TodoResponse> completedTodos = todoService.getAllTodosWithPagination(PageRequest.of(0, 50), true);
+
+        assertEquals(50, openTodos.getContent().size());
+        assertEquals(count(false), openTodos.getTotalElements());
+        assertEquals(count(true), completedTodos.getTotalElements());
+        assertTrue(openTodos.getContent().stream().noneMatch(TodoResponse::isCompleted));
+        assertTrue(completedTodos.getContent().stream().allMatch(TodoResponse::isCompleted));
+    }
+
+    // explains the statement hibernate actually issues for the listing, with its own parameters bound
+    private String explainListing(boolean completed) {
+        RecordingStatementInspector.start();
+        List<String> statements;
+        try {
+            todoService.getAllTodosWithPagination(PageRequest.of(0, 20), completed);
+        } finally {
+            statements = RecordingStatementInspector.stop();
+        }
+        assertEquals(1, statements.size(), statements.toString());
+
+        // completed, then the page's offset and size
+        String sql = statements.get(0);
+        Object[] parameters = { completed, 0, 20 };
+        assertEquals(parameters.length, sql.chars().filter((c) -> c == '?').count(), sql);
+        List<String> plan = jdbcTemplate.queryForList("explain " + sql, String.class, parameters);
+        return String.join("\n", plan);
+    }
+
+    private long count(boolean completed) {
+        return jdbcTemplate.queryForObject("select count(*) from todos where completed = ?", Long.class, completed);
+    }
+}
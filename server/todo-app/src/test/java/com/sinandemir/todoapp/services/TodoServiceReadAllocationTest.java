@@ -0,0 +1,106 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sinandemir.todoapp.dto.responses.TodoResponse;
+import com.sinandemir.todoapp.mappers.TodoMapper;
+import com.sinandemir.todoapp.repositories.TodoRepository;
+
+import com.sun.management.ThreadMXBean;
+
+// no outer transaction: the projection read has to run in the service's own read-only one
+@SpringBootTest
+public class TodoServiceReadAllocationTest {
+
+    private static final int ROWS = 1000;
+    private static final int WARMUP_READS = 30;
+    private static final int MEASURED_READS = 10;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepos;
+
+    @Autowired
+    private TodoCounters todoCounters;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long lastIdBefore;
+
+    @BeforeEach
+    void setup() {
+        lastIdBefore = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from todos", Long.class);
+        jdbcTemplate.update("insert into todos (id, title, description, completed) "
+                + "select nextval('todos_seq'), 'allocation ' || n, 'allocation', n % 2 = 0 from generate_series(1, ?) n",
+                ROWS);
+        todoCounters.reconcile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from todos where id > ?", lastIdBefore);
+        todoCounters.reconcile();
+    }
+
+    @Test
+    @DisplayName("Test a projected page read allocates less than loading and mapping entities")
+    void should_allocate_less_reading_a_page_through_projections() {
+        Pageable pageable = PageRequest.of(0, ROWS, Sort.by(Sort.Direction.DESC, "id"));
+        // the read path before projections: managed entities in a read-write transaction, snapshotted for
+        // dirty checking and flushed at commit, then mapped
+        TransactionTemplate readWriteTransaction = new TransactionTemplate(transactionManager);
+        Supplier<List<TodoResponse>> entityRead = () -> readWriteTransaction
+                .execute((status) -> TodoMapper.toResponses(todoRepos.findAllBy(pageable)));
+        Supplier<List<TodoResponse>> projectionRead = () -> todoService.getAllTodosWithPagination(pageable, null)
+                .getContent();
+
+        long entityBytes = allocatedBytesPerRead(entityRead);
+        long projectionBytes = allocatedBytesPerRead(projectionRead);
+
+        assertTrue(projectionBytes < entityBytes,
+                "projection read: " + projectionBytes + " bytes, entity read: " + entityBytes + " bytes");
+    }
+
+    // fewest bytes any one measured read allocated on this thread, after warm-up
+    private static long allocatedBytesPerRead(Supplier<List<TodoResponse>> read) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_READS; i++) {
+            read.get();
+        }
+
+        long fewestBytes = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_READS; i++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            List<TodoResponse> todos = read.get();
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+            assertEquals(ROWS, todos.size());
+            fewestBytes = Math.min(fewestBytes, allocated);
+        }
+        return fewestBytes;
+    }
+}
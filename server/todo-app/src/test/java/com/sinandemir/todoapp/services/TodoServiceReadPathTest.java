@@ -0,0 +1,104 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sinandemir.todoapp.dto.requests.TodoRequest;
+import com.sinandemir.todoapp.dto.responses.TodoResponse;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// no outer transaction: each read runs in the service's own read-only one
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.sinandemir.todoapp.services.TodoServiceReadPathTest$SessionStateInspector" })
+public class TodoServiceReadPathTest {
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<Long> savedTodoIds;
+    private TodoResponse savedTodo;
+
+    @BeforeEach
+    void setup() {
+        savedTodo = todoService.addTodo(new TodoRequest("read path", "read path", true));
+        TodoResponse otherTodo = todoService.addTodo(new TodoRequest("read path 2", "read path 2", false));
+        savedTodoIds = List.of(savedTodo.getId(), otherTodo.getId());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        SessionStateInspector.SESSION_STATES.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        todoService.deleteTodos(savedTodoIds);
+    }
+
+    @Test
+    @DisplayName("Test read methods project into responses in read-only sessions")
+    void should_read_todos_without_hydrating_entities() {
+        TodoResponse todo = todoService.getTodo(savedTodo.getId());
+        List<TodoResponse> allTodos = todoService.getAllTodos();
+        Page<TodoResponse> page = todoService.getAllTodosWithPagination(
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")), null);
+
+        assertEquals(savedTodo.getTitle(), todo.getTitle());
+        assertEquals(savedTodo.isCompleted(), todo.isCompleted());
+        assertTrue(allTodos.size() >= 2);
+        assertEquals(2, page.getContent().size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(List.of("MANUAL read-only", "MANUAL read-only", "MANUAL read-only"),
+                SessionStateInspector.SESSION_STATES);
+    }
+
+    // records the flush mode and read-only default of the transactional session each statement runs in
+    public static class SessionStateInspector implements StatementInspector {
+
+        private static final List<String> SESSION_STATES = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.contains("todos")) {
+                SESSION_STATES.add(currentSessionState());
+            }
+            return sql;
+        }
+
+        private static String currentSessionState() {
+            for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+                if (resource instanceof EntityManagerHolder holder) {
+                    Session session = holder.getEntityManager().unwrap(Session.class);
+                    return session.getHibernateFlushMode() + (session.isDefaultReadOnly() ? " read-only" : "");
+                }
+            }
+            return "no transaction";
+        }
+    }
+}
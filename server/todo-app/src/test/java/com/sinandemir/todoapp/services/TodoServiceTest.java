@@ -1,11 +1,15 @@
 package com.sinandemir.todoapp.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -22,29 +26,38 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.sinandemir.todoapp.dto.requests.TodoRequest;
+import com.sinandemir.todoapp.dto.responses.CursorPageResponse;
 import com.sinandemir.todoapp.dto.responses.TodoResponse;
 import com.sinandemir.todoapp.entities.Todo;
 import com.sinandemir.todoapp.exceptions.ResourceNotFoundException;
+import com.sinandemir.todoapp.exceptions.TodoGlobalException;
 import com.sinandemir.todoapp.repositories.TodoRepository;
+import com.sinandemir.todoapp.repositories.TodoStateView;
 
 @SpringBootTest
 public class TodoServiceTest {
-    @Mock
-    private ModelMapper modelMapper;
-
     @InjectMocks
     private TodoService cut;
 
     @Mock
     private TodoRepository todoRepos;
 
+    @Mock
+    private TodoSearchIndex todoSearchIndex;
+
+    @Mock
+    private TodoCounters todoCounters;
+
     @Captor
     private ArgumentCaptor<Todo> todoCaptor;
 
@@ -58,16 +71,15 @@ public class TodoServiceTest {
     void should_get_todo_by_id() {
         Long todoId = 0L;
 
-        Todo result = new Todo();
-        result.setTitle("someValue");
-        result.setDescription("someValue");
-        result.setCompleted(false);
+        TodoResponse todo = new TodoResponse(todoId, "someValue", "someValue", false);
 
-        Mockito.when(todoRepos.findById(todoId)).thenReturn(Optional.of(result));
+        Mockito.when(todoRepos.findResponseById(todoId)).thenReturn(Optional.of(todo));
 
-        cut.getTodo(todoId);
+        TodoResponse result = cut.getTodo(todoId);
 
-        verify(todoRepos).findById(todoId);
+        assertEquals(todo, result);
+        verify(todoRepos).findResponseById(todoId);
+        verify(todoRepos, never()).findById(todoId);
     }
 
     @Test
@@ -75,7 +87,7 @@ public class TodoServiceTest {
     void should_throw_exception_get_todo() {
         Long todoId = 0L;
 
-        Mockito.when(todoRepos.findById(todoId)).thenReturn(Optional.empty());
+        Mockito.when(todoRepos.findResponseById(todoId)).thenReturn(Optional.empty());
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> {
             cut.getTodo(todoId);
@@ -87,31 +99,83 @@ public class TodoServiceTest {
     @Test
     @DisplayName("Test getAllTodosWithPagination")
     void should_get_all_todos_with_pagination_return_todo_response_with_pageable() {
-        List<Todo> todos = new ArrayList<Todo>();
-        Todo todo1 = new Todo(0L, "someValue", "someValue", false);
-        Todo todo2 = new Todo(1L, "someValue", "someValue", false);
+        List<TodoResponse> todos = new ArrayList<TodoResponse>();
+        TodoResponse todo1 = new TodoResponse(0L, "someValue", "someValue", false);
+        TodoResponse todo2 = new TodoResponse(1L, "someValue", "someValue", false);
         todos.add(todo1);
         todos.add(todo2);
 
-        Page<Todo> todosWithPagination = new PageImpl<>(todos);
+        Pageable pageable = PageRequest.of(0, 2);
 
-        when(todoRepos.findAll(Pageable.unpaged())).thenReturn(todosWithPagination);
+        when(todoRepos.findResponsesBy(pageable)).thenReturn(todos);
+        when(todoCounters.getTotal()).thenReturn(10L);
 
-        Page<TodoResponse> result = cut.getAllTodosWithPagination(Pageable.unpaged());
+        Page<TodoResponse> result = cut.getAllTodosWithPagination(pageable, null);
 
         assertEquals(todos.size(), result.getContent().size());
+        assertEquals(10L, result.getTotalElements());
+        verify(todoRepos, never()).count();
+    }
+
+    @Test
+    @DisplayName("Test getAllTodosWithPagination filtered by completed")
+    void should_get_open_todos_in_id_order_with_counter_total() {
+        List<TodoResponse> todos = List.of(new TodoResponse(0L, "someValue", "someValue", false));
+        Pageable pageable = PageRequest.of(1, 1);
+        Pageable idOrderedPageable = PageRequest.of(1, 1, Sort.by("id"));
+
+        when(todoRepos.findResponsesByCompleted(false, idOrderedPageable)).thenReturn(todos);
+        when(todoCounters.getTotal()).thenReturn(10L);
+        when(todoCounters.getCompleted()).thenReturn(4L);
+
+        Page<TodoResponse> result = cut.getAllTodosWithPagination(pageable, false);
+
+        assertEquals(todos, result.getContent());
+        assertEquals(6L, result.getTotalElements());
+        verify(todoRepos, never()).findResponsesBy(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Test getAllTodosWithSlice")
+    void should_get_all_todos_with_slice_without_counting() {
+        List<TodoResponse> todos = new ArrayList<TodoResponse>();
+        todos.add(new TodoResponse(0L, "someValue", "someValue", false));
+        Pageable pageable = PageRequest.of(0, 1);
+
+        when(todoRepos.findResponseSliceBy(pageable)).thenReturn(new SliceImpl<>(todos, pageable, true));
+
+        Slice<TodoResponse> result = cut.getAllTodosWithSlice(pageable);
+
+        assertEquals(1, result.getContent().size());
+        assertTrue(result.hasNext());
+        verify(todoRepos, never()).count();
+    }
+
+    @Test
+    @DisplayName("Test searchTodos keeps the index ranking")
+    void should_search_todos_in_ranked_order() {
+        ReflectionTestUtils.setField(cut, "maxSearchLimit", 100);
+        TodoResponse first = new TodoResponse(1L, "first", "first", false);
+        TodoResponse third = new TodoResponse(3L, "third", "third", false);
+
+        when(todoSearchIndex.search("plan", 20)).thenReturn(List.of(3L, 2L, 1L));
+        when(todoRepos.findResponsesByIdIn(List.of(3L, 2L, 1L))).thenReturn(List.of(first, third));
+
+        List<TodoResponse> result = cut.searchTodos("plan", 20);
+
+        assertEquals(List.of(third, first), result);
     }
 
     @Test
     @DisplayName("Test getAllTodos called repository")
     void should_get_all_todos() {
-        List<Todo> todos = new ArrayList<Todo>();
-        Todo todo1 = new Todo(0L, "someValue", "someValue", false);
-        Todo todo2 = new Todo(1L, "someValue", "someValue", false);
+        List<TodoResponse> todos = new ArrayList<TodoResponse>();
+        TodoResponse todo1 = new TodoResponse(0L, "someValue", "someValue", false);
+        TodoResponse todo2 = new TodoResponse(1L, "someValue", "someValue", false);
         todos.add(todo1);
         todos.add(todo2);
 
-        Mockito.when(todoRepos.findAll()).thenReturn(todos);
+        Mockito.when(todoRepos.findAllResponses()).thenReturn(todos);
 
         List<TodoResponse> result = cut.getAllTodos();
 
@@ -131,23 +195,20 @@ public class TodoServiceTest {
         todo.setTitle("someValue");
         todo.setDescription("someValue");
 
-        TodoResponse todoResponse = new TodoResponse();
-        todoResponse.setId(1L);
-        todoResponse.setTitle("someValue");
-        todoResponse.setDescription("someValue");
-
-        when(modelMapper.map(todoRequest, Todo.class)).thenReturn(todo);
-        when(todoRepos.save(todo)).thenReturn(todo);
-        when(modelMapper.map(todo, TodoResponse.class)).thenReturn(todoResponse);
+        when(todoRepos.save(any(Todo.class))).thenReturn(todo);
 
         TodoResponse result = cut.addTodo(todoRequest);
 
-        assertNotNull(result);
-        assertEquals(todoResponse, result);
+        verify(todoRepos).save(todoCaptor.capture());
+        verify(todoCounters).onAdded(false);
+        verify(todoSearchIndex).index(todo.getId(), todo.getTitle(), todo.getDescription());
+
+        Todo capturedTodo = todoCaptor.getValue();
+        assertNull(capturedTodo.getId());
+        assertEquals(todoRequest.getTitle(), capturedTodo.getTitle());
+        assertEquals(todoRequest.getDescription(), capturedTodo.getDescription());
 
-        verify(modelMapper).map(todoRequest, Todo.class);
-        verify(todoRepos).save(todo);
-        verify(modelMapper).map(todo, TodoResponse.class);
+        assertEquals(todo.getId(), result.getId());
 
         assertNotNull(result);
         assertNotNull(result.getDescription());
@@ -164,19 +225,15 @@ public class TodoServiceTest {
     void should_delete_todo() {
         Long todoId = 1L;
 
-        Todo todo = new Todo();
-        todo.setId(todoId);
-        todo.setTitle("someValue");
-        todo.setDescription("someValue");
-        todo.setCompleted(false);
-
-        when(todoRepos.findById(todoId)).thenReturn(Optional.of(todo));
-        doNothing().when(todoRepos).deleteById(todoId);
+        when(todoRepos.deleteByIdReturningCompleted(todoId)).thenReturn(Optional.of(true));
 
         cut.deleteTodo(todoId);
 
-        verify(todoRepos).findById(todoId);
-        verify(todoRepos).deleteById(todoId);
+        verify(todoRepos).deleteByIdReturningCompleted(todoId);
+        verify(todoRepos, never()).findById(todoId);
+        verify(todoRepos, never()).deleteById(todoId);
+        verify(todoCounters).onDeleted(true);
+        verify(todoSearchIndex).remove(todoId);
     }
 
     @Test
@@ -184,14 +241,14 @@ public class TodoServiceTest {
     void should_throw_exception_delete_todo() {
         Long todoId = 1L;
 
-        when(todoRepos.findById(todoId)).thenReturn(Optional.empty());
+        when(todoRepos.deleteByIdReturningCompleted(todoId)).thenReturn(Optional.empty());
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> {
-            cut.getTodo(todoId);
+            cut.deleteTodo(todoId);
         });
 
         assertEquals("todo not found with id -> " + todoId, ex.getMessage());
-
+        verify(todoCounters, never()).onDeleted(anyBoolean());
     }
 
     @Test
@@ -205,7 +262,8 @@ public class TodoServiceTest {
         todo.setDescription("someValue");
         todo.setCompleted(false);
 
-        when(todoRepos.findById(todoId)).thenReturn(Optional.of(todo));
+        when(todoRepos.findByIdForUpdate(todoId)).thenReturn(Optional.of(todo));
+        when(todoRepos.save(todo)).thenReturn(todo);
 
         TodoRequest todoRequest = new TodoRequest();
         todoRequest.setTitle("someChengedValue");
@@ -228,6 +286,8 @@ public class TodoServiceTest {
         assertEquals(capturedTodo.getTitle(), todoRequest.getTitle());
         assertEquals(capturedTodo.getDescription(), todoRequest.getDescription());
         assertEquals(capturedTodo.isCompleted(), todoRequest.isCompleted());
+
+        verify(todoCounters).onCompletedChanged(false, true);
     }
 
     @Test
@@ -249,22 +309,22 @@ public class TodoServiceTest {
     @DisplayName("Test changeCompletedStatus")
     void should_change_completed_status() {
         Long todoId = 1L;
+        TodoStateView toggledTodo = Mockito.mock(TodoStateView.class);
+        when(toggledTodo.getId()).thenReturn(todoId);
+        when(toggledTodo.getCompleted()).thenReturn(true);
 
-        Todo todo = new Todo();
-        when(todoRepos.findById(todoId)).thenReturn(Optional.of(todo));
-
-        when(todoRepos.save(any(Todo.class))).thenReturn(todo);
-
-        when(modelMapper.map(todo, TodoResponse.class)).thenReturn(new TodoResponse());
+        when(todoRepos.toggleCompleted(todoId)).thenReturn(Optional.of(toggledTodo));
 
         TodoResponse result = cut.changeCompletedStatus(todoId);
 
-        verify(todoRepos).findById(todoId);
-        verify(todoRepos).save(todo);
-        verify(modelMapper).map(todo, TodoResponse.class);
+        verify(todoRepos).toggleCompleted(todoId);
+        verify(todoRepos, never()).findById(todoId);
+        verify(todoRepos, never()).save(any(Todo.class));
+        verify(todoCounters).onCompletedChanged(false, true);
 
         assertNotNull(result);
-        assertNotEquals(todo.isCompleted(), result.isCompleted());
+        assertEquals(todoId, result.getId());
+        assertTrue(result.isCompleted());
     }
 
     @Test
@@ -272,12 +332,90 @@ public class TodoServiceTest {
     void should_throw_exception_change_completed_status() {
         Long todoId = 1L;
 
-        when(todoRepos.findById(todoId)).thenReturn(Optional.empty());
+        when(todoRepos.toggleCompleted(todoId)).thenReturn(Optional.empty());
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> {
-            cut.getTodo(todoId);
+            cut.changeCompletedStatus(todoId);
         });
 
         assertEquals("todo not found with id -> " + todoId, ex.getMessage());
     }
+
+    @Test
+    @DisplayName("Test getTodosWithCursor first page")
+    void should_get_first_cursor_page_and_next_cursor() {
+        ReflectionTestUtils.setField(cut, "maxCursorPageSize", 100);
+        Todo first = new Todo(1L, "a", "a", false);
+        Todo second = new Todo(2L, "b", "b", false);
+        Todo third = new Todo(3L, "c", "c", false);
+
+        when(todoRepos.findAllBy(PageRequest.of(0, 3, Sort.by(Sort.Direction.ASC, "title", "id"))))
+                .thenReturn(new ArrayList<>(List.of(first, second, third)));
+
+        CursorPageResponse<TodoResponse> result = cut.getTodosWithCursor(null, 2, "title", "asc");
+
+        assertEquals(2, result.getSize());
+        assertTrue(result.isHasNext());
+        assertEquals(new TodoCursor("title", false, 2L, "b").encode(), result.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Test getTodosWithCursor continues after the cursor")
+    void should_get_cursor_page_after_decoded_cursor() {
+        ReflectionTestUtils.setField(cut, "maxCursorPageSize", 100);
+        String cursor = new TodoCursor("title", false, 2L, "b:with:colons").encode();
+
+        when(todoRepos.findByTitleAndIdAfter("b:with:colons", 2L, 21)).thenReturn(new ArrayList<>());
+
+        CursorPageResponse<TodoResponse> result = cut.getTodosWithCursor(cursor, 20, "title", "asc");
+
+        assertEquals(0, result.getSize());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+
+        verify(todoRepos).findByTitleAndIdAfter("b:with:colons", 2L, 21);
+    }
+
+    @Test
+    @DisplayName("Test getTodosWithCursor caps the page size")
+    void should_cap_cursor_page_size() {
+        ReflectionTestUtils.setField(cut, "maxCursorPageSize", 100);
+
+        when(todoRepos.findByIdLessThan(50L, PageRequest.of(0, 101, Sort.by(Sort.Direction.DESC, "id"))))
+                .thenReturn(new ArrayList<>());
+
+        cut.getTodosWithCursor(new TodoCursor("id", true, 50L, null).encode(), 5000, "id", "desc");
+
+        verify(todoRepos).findByIdLessThan(50L, PageRequest.of(0, 101, Sort.by(Sort.Direction.DESC, "id")));
+    }
+
+    @Test
+    @DisplayName("Test getTodosWithCursor rejects unsupported sorts and foreign cursors")
+    void should_reject_unsupported_sort_and_mismatched_cursor() {
+        ReflectionTestUtils.setField(cut, "maxCursorPageSize", 100);
+        String idCursor = new TodoCursor("id", false, 2L, null).encode();
+
+        TodoGlobalException sortEx = assertThrows(TodoGlobalException.class, () -> {
+            cut.getTodosWithCursor(null, 20, "description", "asc");
+        });
+        TodoGlobalException cursorEx = assertThrows(TodoGlobalException.class, () -> {
+            cut.getTodosWithCursor(idCursor, 20, "title", "asc");
+        });
+
+        assertEquals("sort is not supported -> description", sortEx.getMessage());
+        assertEquals("cursor is not valid for this sort!", cursorEx.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test addTodos rejects oversized batches")
+    void should_reject_batches_over_the_limit() {
+        ReflectionTestUtils.setField(cut, "maxBatchSize", 1);
+
+        TodoGlobalException ex = assertThrows(TodoGlobalException.class, () -> {
+            cut.addTodos(List.of(new TodoRequest("a", "a", false), new TodoRequest("b", "b", false)));
+        });
+
+        assertEquals("batch size exceeds the limit -> 1", ex.getMessage());
+        verify(todoRepos, never()).saveAll(any());
+    }
 }
@@ -0,0 +1,107 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.sinandemir.todoapp.dto.requests.TodoRequest;
+import com.sinandemir.todoapp.dto.responses.TodoResponse;
+
+@SpringBootTest
+public class TodoServiceToggleConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int TOGGLES_PER_THREAD = 50;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoCounters todoCounters;
+
+    @Test
+    @DisplayName("Test changeCompletedStatus loses no toggles under contention")
+    void should_toggle_atomically_from_many_threads() throws Exception {
+        Long todoId = todoService.addTodo(new TodoRequest("toggle", "toggle", false)).getId();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger completedResults = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < TOGGLES_PER_THREAD; j++) {
+                        if (todoService.changeCompletedStatus(todoId).isCompleted()) {
+                            completedResults.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            int toggles = THREADS * TOGGLES_PER_THREAD;
+            TodoResponse todo = todoService.getTodo(todoId);
+
+            assertEquals(toggles % 2 == 1, todo.isCompleted());
+            assertEquals((toggles + 1) / 2, completedResults.get());
+        } finally {
+            executor.shutdownNow();
+            todoService.deleteTodo(todoId);
+        }
+    }
+
+    @Test
+    @DisplayName("Test updateTodo and changeCompletedStatus keep the completed counter exact under contention")
+    void should_count_completed_exactly_when_updates_race_toggles() throws Exception {
+        long completedBefore = todoCounters.getCompleted();
+        Long todoId = todoService.addTodo(new TodoRequest("race", "race", false)).getId();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                boolean updating = i % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < TOGGLES_PER_THREAD; j++) {
+                        if (updating) {
+                            todoService.updateTodo(new TodoRequest("race", "race", j % 2 == 0), todoId);
+                        } else {
+                            todoService.changeCompletedStatus(todoId);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            TodoResponse todo = todoService.getTodo(todoId);
+
+            assertEquals(completedBefore + (todo.isCompleted() ? 1 : 0), todoCounters.getCompleted());
+        } finally {
+            executor.shutdownNow();
+            todoService.deleteTodo(todoId);
+        }
+    }
+}
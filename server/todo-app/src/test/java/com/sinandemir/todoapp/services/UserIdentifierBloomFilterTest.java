@@ -0,0 +1,137 @@
+package com.sinandemir.todoapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+
+import com.sinandemir.todoapp.entities.User;
+import com.sinandemir.todoapp.repositories.UserIdentifierView;
+
+public class UserIdentifierBloomFilterTest {
+
+    @Mock
+    private UserService userService;
+
+    private List<UserIdentifierView> users;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        users = new ArrayList<>();
+        // pages through the stored users the way the keyset query does
+        when(userService.findIdentifiersAfter(anyLong(), any(Pageable.class))).thenAnswer((invocation) -> {
+            long afterId = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            return users.stream().filter((user) -> user.getId() > afterId).limit(pageable.getPageSize()).toList();
+        });
+    }
+
+    @Test
+    @DisplayName("Test mightContainAny never misses a stored username or email")
+    void should_have_no_false_negatives() {
+        addUsers(1, 5000);
+        // every user inserts a username and an email
+        UserIdentifierBloomFilter cut = new UserIdentifierBloomFilter(userService, true, 10000, 0.01);
+
+        cut.build();
+
+        for (UserIdentifierView user : users) {
+            assertTrue(cut.mightContainAny(user.getUsername()));
+            assertTrue(cut.mightContainAny(null, user.getEmail()));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (cut.mightContainAny("unknown-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 30, "false positives: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("Test mightContainAny answers true until the filter is built")
+    void should_contain_everything_before_build() {
+        UserIdentifierBloomFilter cut = new UserIdentifierBloomFilter(userService, true, 1000, 0.01);
+
+        assertTrue(cut.mightContainAny("anyone"));
+
+        cut.build();
+
+        assertFalse(cut.mightContainAny("anyone"));
+    }
+
+    @Test
+    @DisplayName("Test build again picks up users stored since the last build")
+    void should_include_new_users_on_rebuild() {
+        addUsers(1, 10);
+        UserIdentifierBloomFilter cut = new UserIdentifierBloomFilter(userService, true, 1000, 0.01);
+        cut.build();
+
+        addUsers(11, 20);
+        cut.build();
+
+        for (UserIdentifierView user : users) {
+            assertTrue(cut.mightContainAny(user.getUsername(), user.getEmail()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test onUserSaved adds a registered user without a rebuild")
+    void should_include_saved_user() {
+        UserIdentifierBloomFilter cut = new UserIdentifierBloomFilter(userService, true, 1000, 0.01);
+        cut.build();
+
+        User user = new User();
+        user.setUsername("new-user");
+        user.setEmail("new-user@fake-email.com");
+        cut.onUserSaved(new UserSavedEvent(user));
+
+        assertTrue(cut.mightContainAny("new-user"));
+        assertTrue(cut.mightContainAny("new-user@fake-email.com"));
+    }
+
+    @Test
+    @DisplayName("Test a disabled filter sends every check to the database")
+    void should_contain_everything_when_disabled() {
+        UserIdentifierBloomFilter cut = new UserIdentifierBloomFilter(userService, false, 1000, 0.01);
+
+        cut.build();
+
+        assertTrue(cut.mightContainAny("anyone"));
+    }
+
+    private void addUsers(long firstId, long lastId) {
+        for (long id = firstId; id <= lastId; id++) {
+            long userId = id;
+            users.add(new UserIdentifierView() {
+                @Override
+                public Long getId() {
+                    return userId;
+                }
+
+                @Override
+                public String getUsername() {
+                    return "user-" + userId;
+                }
+
+                @Override
+                public String getEmail() {
+                    return "user-" + userId + "@fake-email.com";
+                }
+            });
+        }
+    }
+}
@@ -3,7 +3,8 @@ package com.sinandemir.todoapp.services;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -18,9 +19,12 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 
 import com.sinandemir.todoapp.entities.Role;
 import com.sinandemir.todoapp.entities.User;
+import com.sinandemir.todoapp.repositories.LoginIdentifierRepository;
+import com.sinandemir.todoapp.repositories.UserIdentifierView;
 import com.sinandemir.todoapp.repositories.UserRepository;
 
 @SpringBootTest
@@ -29,80 +33,18 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepos;
 
+    @Mock
+    private LoginIdentifierRepository loginIdentifierRepos;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService cut;
 
     @Captor
     ArgumentCaptor<User> userCaptor;
 
-    @Test
-    @DisplayName("Test existsByEmail")
-    void should_return_true_exists_by_user_email() {
-        User user = new User();
-        String fakeEmail = "xxx@fakeEmail.com";
-        user.setEmail(fakeEmail);
-
-        when(userRepos.existsByEmail(fakeEmail)).thenReturn(true);
-
-        Boolean result = cut.existsByEmail(fakeEmail);
-
-        assertNotNull(result);
-        assertTrue(result);
-
-        verify(userRepos).existsByEmail(fakeEmail);
-    }
-
-    @Test
-    @DisplayName("Test existsByEmail return false")
-    void should_return_false_exists_by_user_email() {
-        User user = new User();
-        String fakeEmail = "xxx@fakeEmail.com";
-        user.setEmail(fakeEmail);
-
-        when(userRepos.existsByEmail(fakeEmail)).thenReturn(false);
-
-        Boolean result = cut.existsByEmail(fakeEmail);
-
-        assertNotNull(result);
-        assertFalse(result);
-
-        verify(userRepos).existsByEmail(fakeEmail);
-    }
-
-    @Test
-    @DisplayName("Test existsByUsername")
-    void should_return_true_exists_by_username() {
-        User user = new User();
-        String fakeUsername = "fakeUsername";
-        user.setUsername(fakeUsername);
-
-        when(userRepos.existsByUsername(fakeUsername)).thenReturn(true);
-
-        Boolean result = cut.existsByUsername(fakeUsername);
-
-        assertNotNull(result);
-        assertTrue(result);
-
-        verify(userRepos).existsByUsername(fakeUsername);
-    }
-
-    @Test
-    @DisplayName("Test existsByUsername return false")
-    void should_return_false_exists_by_username() {
-        User user = new User();
-        String fakeUsername = "fakeUsername";
-        user.setUsername(fakeUsername);
-
-        when(userRepos.existsByUsername(fakeUsername)).thenReturn(false);
-
-        Boolean result = cut.existsByUsername(fakeUsername);
-
-        assertNotNull(result);
-        assertFalse(result);
-
-        verify(userRepos).existsByUsername(fakeUsername);
-    }
-
     @Test
     @DisplayName("Test save")
     void should_save_user_and_return_user() {
@@ -140,6 +82,72 @@ public class UserServiceTest {
         assertEquals(capturedUser.getUsername(), user.getUsername());
         assertEquals(capturedUser.getRoles().size(), user.getRoles().size());
 
+        verify(loginIdentifierRepos).deleteStale(user.getId(), Set.of("fakevalue"));
+        verify(loginIdentifierRepos).upsert("fakevalue", user.getId());
+        verify(loginIdentifierRepos, never()).resolveAmbiguous(any());
+        verify(eventPublisher).publishEvent(any(UserSavedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Test save re-resolves the identifiers a renamed user gave up")
+    void should_resolve_dropped_identifiers_when_user_is_renamed() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("New-Name");
+        user.setEmail("same@fake-email.com");
+        UserIdentifierView stored = new UserIdentifierView() {
+            public Long getId() {
+                return 1L;
+            }
+
+            public String getUsername() {
+                return "Old-Name";
+            }
+
+            public String getEmail() {
+                return "Same@fake-email.com";
+            }
+        };
+
+        when(userRepos.findStoredIdentifiersById(1L)).thenReturn(Optional.of(stored));
+        when(userRepos.save(user)).thenReturn(user);
+
+        cut.save(user);
+
+        verify(loginIdentifierRepos).deleteStale(1L, Set.of("new-name", "same@fake-email.com"));
+        verify(loginIdentifierRepos).resolveAmbiguous(Set.of("old-name"));
+    }
+
+    @Test
+    @DisplayName("Test findByLoginIdentifier")
+    void should_find_by_login_identifier_with_lower_cased_identifier() {
+        User user = new User();
+        user.setUsername("fakeUsername");
+
+        when(userRepos.findByLoginIdentifier("fakeusername")).thenReturn(Optional.of(user));
+
+        User result = cut.findByLoginIdentifier("FakeUsername").get();
+
+        assertEquals("fakeUsername", result.getUsername());
+
+        verify(userRepos).findByLoginIdentifier("fakeusername");
+        verify(userRepos, never()).findByUsernameOrEmail("FakeUsername", "FakeUsername");
+    }
+
+    @Test
+    @DisplayName("Test findByLoginIdentifier falls back to the exact match")
+    void should_find_by_login_identifier_fall_back_to_exact_match() {
+        User user = new User();
+        user.setUsername("FakeUsername");
+
+        when(userRepos.findByLoginIdentifier("fakeusername")).thenReturn(Optional.empty());
+        when(userRepos.findByUsernameOrEmail("FakeUsername", "FakeUsername")).thenReturn(Optional.of(user));
+
+        User result = cut.findByLoginIdentifier("FakeUsername").get();
+
+        assertEquals("FakeUsername", result.getUsername());
+
+        verify(userRepos).findByUsernameOrEmail("FakeUsername", "FakeUsername");
     }
 
     @Test